@@ -7,7 +7,6 @@ import android.util.Log;
 import android.annotation.SuppressLint;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 
 /**
@@ -107,19 +106,10 @@ public class AudioPreprocessor {
             recorder.stop();
 
 
-            // 1. Allocate the direct ByteBuffer (4 bytes per float)
-            ByteBuffer byteBuffer = ByteBuffer.allocateDirect(shortsRead * 4)
-                    .order(ByteOrder.nativeOrder());
-
-            // 2. Create the FloatBuffer view of the ByteBuffer
+            // Convert 16-bit short to normalized 32-bit float in a direct, native-order buffer
+            ByteBuffer byteBuffer = PcmConverter.toFloat32Buffer(audioBufferShort, shortsRead);
             FloatBuffer floatBuffer = byteBuffer.asFloatBuffer();
 
-            // 3. Convert 16-bit short to 32-bit float and normalize to [-1.0, 1.0]
-            for (int i = 0; i < shortsRead; i++) {
-                // Normalization: Divide by 2^15 (32768.0f)
-                floatBuffer.put(audioBufferShort[i] / 32768.0f);
-            }
-
             // --- DIAGNOSTIC LOGGING (CRUCIAL!) ---
             // Check if actual sound data was captured.
             Log.d(TAG, "--- Diagnostic Audio Sample Check ---");
@@ -133,9 +123,6 @@ public class AudioPreprocessor {
             }
             Log.d(TAG, "-------------------------------------");
 
-            // Rewind the position to the start of the data (position 0) for the TFLite interpreter
-            byteBuffer.position(0);
-
             return byteBuffer;
 
         } catch (Exception e) {
@@ -0,0 +1,98 @@
+package com.example.myapplication;
+
+/**
+ * Pure-Java helpers for turning raw model outputs (logits) into class indices and probabilities.
+ * Nothing here allocates: results go into caller-provided primitive arrays, so the same code serves
+ * batch (per-window), streaming and interactive (single-shot) paths.
+ */
+public final class ClassificationPostProcessor {
+
+    private ClassificationPostProcessor() {}
+
+    /**
+     * Finds the index of the highest logit among the first {@code numClasses} entries.
+     * Works for any logits, including all-negative ones.
+     * @return the predicted class index, or -1 if numClasses is 0.
+     */
+    public static int argmax(float[] logits, int numClasses) {
+        if (numClasses <= 0) return -1;
+
+        float maxLogit = logits[0];
+        int predictedClass = 0;
+        for (int i = 1; i < numClasses; i++) {
+            if (logits[i] > maxLogit) {
+                maxLogit = logits[i];
+                predictedClass = i;
+            }
+        }
+        return predictedClass;
+    }
+
+    /**
+     * Numerically stable softmax of logits[offset .. offset+length) divided by {@code temperature},
+     * written to out[outOffset ..]. The max logit is subtracted before exponentiating so large logits
+     * cannot overflow. The loops are kept branch-free so the JIT can vectorize them.
+     * @param temperature Calibration temperature; 1 leaves the logits unchanged, &gt;1 flattens, &lt;1 sharpens.
+     */
+    public static void softmax(float[] logits, int offset, int length, float temperature, float[] out, int outOffset) {
+        if (length <= 0) return;
+        float invTemperature = 1f / temperature;
+
+        float max = logits[offset];
+        for (int i = 1; i < length; i++) {
+            max = Math.max(max, logits[offset + i]);
+        }
+
+        float sum = 0f;
+        for (int i = 0; i < length; i++) {
+            float e = (float) Math.exp((logits[offset + i] - max) * invTemperature);
+            out[outOffset + i] = e;
+            sum += e;
+        }
+
+        float invSum = 1f / sum;
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] *= invSum;
+        }
+    }
+
+    /** Softmax over the first {@code length} logits with temperature 1. */
+    public static void softmax(float[] logits, int length, float[] out) {
+        softmax(logits, 0, length, 1f, out, 0);
+    }
+
+    /**
+     * Selects the {@code k} largest of values[0 .. length) in descending order.
+     * Uses an insertion pass over a k-sized window, which beats a full sort for the small k used here.
+     * @return number of entries written (min(k, length)).
+     */
+    public static int topK(float[] values, int length, int k, int[] outIndices, float[] outValues) {
+        int n = Math.min(k, length);
+        if (n <= 0) return 0;
+
+        int filled = 0;
+        for (int i = 0; i < length; i++) {
+            float v = values[i];
+            if (filled == n && v <= outValues[n - 1]) continue;
+
+            int pos = filled < n ? filled++ : n - 1;
+            while (pos > 0 && outValues[pos - 1] < v) {
+                outValues[pos] = outValues[pos - 1];
+                outIndices[pos] = outIndices[pos - 1];
+                pos--;
+            }
+            outValues[pos] = v;
+            outIndices[pos] = i;
+        }
+        return n;
+    }
+
+    /**
+     * Fills a reusable {@link ClassificationResult}: calibrated probabilities plus its top-k.
+     */
+    public static ClassificationResult classify(float[] logits, int numClasses, float temperature, ClassificationResult into) {
+        softmax(logits, 0, numClasses, temperature, into.probabilities, 0);
+        into.topCount = topK(into.probabilities, numClasses, into.topIndices.length, into.topIndices, into.topProbabilities);
+        return into;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.myapplication;
+
+/**
+ * Reusable holder for one classification: softmax probabilities and the top-k classes.
+ * Allocate once per model (e.g. per stream or per screen) and refill it with
+ * {@link ClassificationPostProcessor#classify}; filling it never allocates.
+ */
+public class ClassificationResult {
+    public final String[] labels;
+    public final float[] probabilities;   // [classes], sums to 1
+    public final int[] topIndices;        // Class indices, most likely first
+    public final float[] topProbabilities;
+    public int topCount;                  // Valid entries in topIndices/topProbabilities
+
+    public ClassificationResult(String[] labels, int topK) {
+        this.labels = labels;
+        this.probabilities = new float[labels.length];
+        this.topIndices = new int[Math.min(topK, labels.length)];
+        this.topProbabilities = new float[topIndices.length];
+    }
+
+    public int topClass() {
+        return topCount > 0 ? topIndices[0] : -1;
+    }
+
+    public String topLabel() {
+        return topCount > 0 ? labels[topIndices[0]] : "UNKNOWN_CLASS";
+    }
+
+    public float topProbability() {
+        return topCount > 0 ? topProbabilities[0] : 0f;
+    }
+}
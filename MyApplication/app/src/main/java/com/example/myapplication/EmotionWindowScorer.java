@@ -0,0 +1,111 @@
+package com.example.myapplication;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Scores a recording with several overlapping windows to smooth out noisy single-window predictions.
+ * All windows are packed into one [K, samples] input so the interpreter is invoked only once per clip.
+ */
+public class EmotionWindowScorer {
+
+    private final TfLitePredictor predictor;
+    private final ModelConfig config;
+    private final int windowSamples;
+    private final int hopSamples;
+
+    /**
+     * @param windowSeconds Length of each window fed to the model.
+     * @param hopSeconds    Distance between window starts (smaller than windowSeconds for overlap).
+     */
+    public EmotionWindowScorer(TfLitePredictor predictor, ModelConfig config, float windowSeconds, float hopSeconds) {
+        if (windowSeconds <= 0 || hopSeconds <= 0) {
+            throw new IllegalArgumentException("Window and hop must be positive.");
+        }
+        this.predictor = predictor;
+        this.config = config;
+        this.windowSamples = Math.round(windowSeconds * config.sampleRate);
+        this.hopSamples = Math.round(hopSeconds * config.sampleRate);
+    }
+
+    /**
+     * Per-clip distribution plus the per-window timeline it was aggregated from.
+     */
+    public static class Result {
+        public final String[] labels;
+        public final long[] windowStartMs;          // Start time of each window within the clip
+        public final float[][] windowProbabilities; // [K][classes] softmax per window
+        public final float[] clipProbabilities;     // [classes] mean over all windows
+
+        Result(String[] labels, long[] windowStartMs, float[][] windowProbabilities, float[] clipProbabilities) {
+            this.labels = labels;
+            this.windowStartMs = windowStartMs;
+            this.windowProbabilities = windowProbabilities;
+            this.clipProbabilities = clipProbabilities;
+        }
+
+        public int topClass() {
+            return ClassificationPostProcessor.argmax(clipProbabilities, clipProbabilities.length);
+        }
+
+        public String topLabel() {
+            return labels[topClass()];
+        }
+    }
+
+    /**
+     * Slices the audio into overlapping windows, runs one batched inference and aggregates over time.
+     * @param audio Float32 samples (e.g. the buffer returned by AudioPreprocessor.recordAndProcess()).
+     */
+    public Result score(ByteBuffer audio) {
+        FloatBuffer samples = audio.duplicate().order(ByteOrder.nativeOrder()).asFloatBuffer();
+        int totalSamples = samples.remaining();
+        int[] starts = windowStarts(totalSamples, windowSamples, hopSamples);
+        int windowCount = starts.length;
+
+        // Pack [K, windowSamples]; a clip shorter than one window is zero padded
+        ByteBuffer batch = ByteBuffer.allocateDirect(windowCount * windowSamples * 4).order(ByteOrder.nativeOrder());
+        FloatBuffer batchFloats = batch.asFloatBuffer();
+        for (int w = 0; w < windowCount; w++) {
+            int length = Math.min(windowSamples, totalSamples - starts[w]);
+            FloatBuffer window = samples.duplicate();
+            window.position(starts[w]).limit(starts[w] + length);
+            batchFloats.position(w * windowSamples);
+            batchFloats.put(window);
+        }
+        batch.rewind();
+
+        float[][] logits = predictor.runBatchedInference(batch, windowCount, windowSamples);
+
+        int classes = config.outputClasses;
+        float[][] windowProbabilities = new float[windowCount][classes];
+        float[] clipProbabilities = new float[classes];
+        long[] windowStartMs = new long[windowCount];
+        for (int w = 0; w < windowCount; w++) {
+            ClassificationPostProcessor.softmax(logits[w], 0, classes, config.temperature, windowProbabilities[w], 0);
+            for (int c = 0; c < classes; c++) {
+                clipProbabilities[c] += windowProbabilities[w][c] / windowCount;
+            }
+            windowStartMs[w] = starts[w] * 1000L / config.sampleRate;
+        }
+
+        return new Result(config.outputLabels, windowStartMs, windowProbabilities, clipProbabilities);
+    }
+
+    /**
+     * Window start offsets every hop; the last window is aligned to the end so the tail is always covered.
+     */
+    static int[] windowStarts(int totalSamples, int windowSamples, int hopSamples) {
+        if (totalSamples <= windowSamples) {
+            return new int[]{0};
+        }
+        int count = 1 + (totalSamples - windowSamples + hopSamples - 1) / hopSamples;
+        int[] starts = new int[count];
+        for (int i = 0; i < count - 1; i++) {
+            starts[i] = i * hopSamples;
+        }
+        starts[count - 1] = totalSamples - windowSamples;
+        return starts;
+    }
+}
\ No newline at end of file
@@ -13,8 +13,10 @@ import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.Callable;
@@ -29,6 +31,11 @@ public class MainActivity extends AppCompatActivity {
     private Vocabulary vocab;
     private ModelConfig config;
     private AudioPreprocessor audioPreprocessor;
+    private EmotionWindowScorer emotionScorer;
+    private volatile ResultStore resultStore; // On-device analysis history, null until opened
+    // Opens and closes the history off the UI thread: both touch the disk and may wait on its writer
+    private final ExecutorService historyExecutor = Executors.newSingleThreadExecutor();
+    private ClassificationResult textResult; // Reused for every sentiment prediction
 
     // --- UI Fields ---
     private EditText inputText;
@@ -57,6 +64,15 @@ public class MainActivity extends AppCompatActivity {
 
         inputText.setText("The quick brown fox jumps over the lazy dog.");
 
+        File historyDir = new File(getFilesDir(), "history");
+        historyExecutor.execute(() -> {
+            try {
+                resultStore = new ResultStore(historyDir);
+            } catch (IOException e) {
+                Log.e(TAG, "Result history unavailable.", e);
+            }
+        });
+
         // 2. Set up Mode Switch Listener
         modeSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
             isTextMode = !isChecked; // isChecked=false -> Text Mode (isTextMode=true)
@@ -89,10 +105,12 @@ public class MainActivity extends AppCompatActivity {
 
     private void initializeTextModel() {
         try {
-            config = ModelConfig.getSentimentConfig();
+            // Sizes (sequence length, inputs, classes) are read from the model itself
+            predictor = new TfLitePredictor(this, ModelConfig.getSentimentConfig().discoverFromModel());
+            config = predictor.getConfig();
 
-            vocab = new Vocabulary(this, config.vocabFileName);
-            predictor = new TfLitePredictor(this, config);
+            vocab = new Vocabulary(getAssets().open(config.vocabFileName));
+            textResult = new ClassificationResult(config.outputLabels, 2);
 
             isTextMode = true;
             modeLabel.setText("Current Mode: Text Analysis (Sentiment)");
@@ -101,7 +119,7 @@ public class MainActivity extends AppCompatActivity {
             statusText.setText("Status: Ready for text input.");
             analyzeButton.setEnabled(true);
 
-        } catch (IOException e) {
+        } catch (IOException | IllegalStateException e) {
             Log.e(TAG, "FATAL: Failed to load Sentiment model files.", e);
             statusText.setText("ERROR: Text model files missing.");
             analyzeButton.setEnabled(false);
@@ -110,12 +128,16 @@ public class MainActivity extends AppCompatActivity {
 
     private void initializeAudioModel() {
         try {
-            config = ModelConfig.getEmotionConfig();
-            predictor = new TfLitePredictor(this, config);
+            // Metadata mode: the audio length dimension stays variable and is resized per call
+            predictor = new TfLitePredictor(this, ModelConfig.getEmotionConfig().discoverFromModel());
+            config = predictor.getConfig();
 
             // AudioPreprocessor constructor is now fixed to use config.sampleRate
             audioPreprocessor = new AudioPreprocessor(config.sampleRate);
 
+            // 2s windows every 1s -> 3 overlapping windows per 4s recording, scored in one invocation
+            emotionScorer = new EmotionWindowScorer(predictor, config, 2.0f, 1.0f);
+
             isTextMode = false;
             modeLabel.setText("Current Mode: Audio Analysis (Emotion)");
             inputText.setVisibility(View.GONE);
@@ -123,7 +145,7 @@ public class MainActivity extends AppCompatActivity {
             statusText.setText("Status: Ready. Check for microphone permission.");
             analyzeButton.setEnabled(true);
 
-        } catch (IOException e) {
+        } catch (IOException | IllegalStateException e) {
             Log.e(TAG, "FATAL: Failed to load Emotion model files.", e);
             statusText.setText("ERROR: Audio model files missing. Check assets.");
             analyzeButton.setEnabled(false);
@@ -167,8 +189,16 @@ public class MainActivity extends AppCompatActivity {
                     // Post status update from the background thread
                     statusText.post(() -> statusText.setText("Status: Running inference..."));
 
-                    float[][] logits = predictor.runInference(audioInputBuffer);
-                    final String emotionResult = postProcessClassification(logits);
+                    EmotionWindowScorer.Result score = emotionScorer.score(audioInputBuffer);
+                    ResultStore store = resultStore;
+                    if (store != null) {
+                        store.append(System.currentTimeMillis(), ResultStore.MODE_AUDIO, score.topClass(),
+                                score.clipProbabilities, score.clipProbabilities.length, ResultStore.hash(audioInputBuffer));
+                    }
+                    final String emotionResult = String.format("%s (%.0f%%, %d windows)",
+                            score.topLabel(),
+                            score.clipProbabilities[score.topClass()] * 100f,
+                            score.windowStartMs.length);
 
                     // Update UI on the main thread after successful inference
                     runOnUiThread(() -> {
@@ -210,7 +240,12 @@ public class MainActivity extends AppCompatActivity {
                 ByteBuffer[] inputs = TextPreprocessor.packageTextInputs(text, vocab, config.sequenceLength);
                 float[][] logits = predictor.runInference(inputs);
 
-                String result = postProcessClassification(logits); // Use generic post-processor
+                // Use generic post-processor: calibrated probabilities + top-k, no per-call allocation
+                ClassificationResult classification = ClassificationPostProcessor.classify(
+                        logits[0], config.outputClasses, config.temperature, textResult);
+                String result = String.format("%s (%.0f%%)",
+                        classification.topLabel(), classification.topProbability() * 100f);
+                recordTextResult(text, classification);
 
                 runOnUiThread(() -> {
                     resultText.setText("Sentiment: " + result);
@@ -227,24 +262,12 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    /**
-     * Generic post-processor to find the highest logit for ANY classification task.
-     */
-    private String postProcessClassification(float[][] output) {
-        float maxLogit = Float.MIN_VALUE;
-        int predictedClass = -1;
-
-        for (int i = 0; i < config.outputClasses; i++) {
-            if (output[0][i] > maxLogit) {
-                maxLogit = output[0][i];
-                predictedClass = i;
-            }
-        }
-
-        if (predictedClass >= 0 && predictedClass < config.outputLabels.length) {
-            return config.outputLabels[predictedClass];
-        }
-        return "UNKNOWN_CLASS";
+    // Queues the result for the on-device history; does not block on disk I/O
+    private void recordTextResult(String text, ClassificationResult classification) {
+        ResultStore store = resultStore;
+        if (store == null) return;
+        store.append(System.currentTimeMillis(), ResultStore.MODE_TEXT, classification.topClass(),
+                classification.probabilities, classification.probabilities.length, ResultStore.hash(text));
     }
 
     // --- Resource Cleanup ---
@@ -254,5 +277,18 @@ public class MainActivity extends AppCompatActivity {
         if (predictor != null) {
             predictor.close();
         }
+        // Queued after the open, so the store is closed even if it was still being opened
+        historyExecutor.execute(() -> {
+            ResultStore store = resultStore;
+            resultStore = null;
+            if (store != null) {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Failed to close result history.", e);
+                }
+            }
+        });
+        historyExecutor.shutdown();
     }
 }
\ No newline at end of file
@@ -18,11 +18,23 @@ public class ModelConfig {
     public final int outputTensorIndex; // The index of the primary output tensor (usually 0)
     public final int outputClasses;     // Size of the final output vector (e.g., 2 for sentiment)
     public final String[] outputLabels; // Labels mapped to the output indices
+    public final float temperature;     // Softmax calibration temperature (1 = uncalibrated)
 
     // --- NEW FIELD FOR AUDIO MODELS ---
     public final int sampleRate; // Wav2Vec2 requires 16000 Hz
 
+    // --- METADATA MODE ---
+    // When true, TfLitePredictor replaces the sizes above with the ones read from the Interpreter.
+    public final boolean discoverShapes;
+    public final TensorSpec[] inputSpecs;  // Null until resolved against a loaded model
+    public final TensorSpec[] outputSpecs; // Null until resolved against a loaded model
+
     public ModelConfig(String modelFile, String vocabFile, int seqLen, int numInputs, int outIndex, int outClasses, String[] labels, int sampleRate) {
+        this(modelFile, vocabFile, seqLen, numInputs, outIndex, outClasses, labels, sampleRate, 1f, false, null, null);
+    }
+
+    private ModelConfig(String modelFile, String vocabFile, int seqLen, int numInputs, int outIndex, int outClasses, String[] labels, int sampleRate,
+                        float temperature, boolean discoverShapes, TensorSpec[] inputSpecs, TensorSpec[] outputSpecs) {
         this.modelFileName = modelFile;
         this.vocabFileName = vocabFile;
         this.sequenceLength = seqLen;
@@ -30,8 +42,53 @@ public class ModelConfig {
         this.outputTensorIndex = outIndex;
         this.outputClasses = outClasses;
         this.outputLabels = labels;
+        this.temperature = temperature;
         // Initialize new field
         this.sampleRate = sampleRate;
+        this.discoverShapes = discoverShapes;
+        this.inputSpecs = inputSpecs;
+        this.outputSpecs = outputSpecs;
+    }
+
+    /**
+     * Returns a copy that asks TfLitePredictor to read input/output shapes, dtypes and quantization
+     * from the model instead of trusting the hardcoded values. Labels and file names are kept.
+     */
+    public ModelConfig discoverFromModel() {
+        return new ModelConfig(modelFileName, vocabFileName, sequenceLength, numberOfInputs, outputTensorIndex,
+                outputClasses, outputLabels, sampleRate, temperature, true, null, null);
+    }
+
+    /**
+     * Returns a copy whose probabilities are calibrated with the given softmax temperature
+     * (fitted offline, e.g. on a validation set). Must be positive.
+     */
+    public ModelConfig withTemperature(float temperature) {
+        if (!(temperature > 0f)) {
+            throw new IllegalArgumentException("Temperature must be positive: " + temperature);
+        }
+        return new ModelConfig(modelFileName, vocabFileName, sequenceLength, numberOfInputs, outputTensorIndex,
+                outputClasses, outputLabels, sampleRate, temperature, discoverShapes, inputSpecs, outputSpecs);
+    }
+
+    /**
+     * Builds the effective config from the tensors reported by the Interpreter (metadata mode).
+     * A variable last input dimension (e.g. raw audio length) is reported as sequenceLength = -1.
+     * @throws IllegalStateException if the model's class count does not match the labels.
+     */
+    public ModelConfig resolve(TensorSpec[] inputs, TensorSpec[] outputs) {
+        TensorSpec primaryInput = inputs[0];
+        int lastInputDim = primaryInput.shape.length - 1;
+        int seqLen = primaryInput.isVariable(lastInputDim) ? -1 : primaryInput.lastDim();
+        int classes = outputs[outputTensorIndex].lastDim();
+
+        if (outputLabels != null && outputLabels.length != classes) {
+            throw new IllegalStateException("Model " + modelFileName + " has " + classes
+                    + " output classes but " + outputLabels.length + " labels are configured.");
+        }
+
+        return new ModelConfig(modelFileName, vocabFileName, seqLen, inputs.length, outputTensorIndex,
+                classes, outputLabels, sampleRate, temperature, true, inputs, outputs);
     }
 
     /**
@@ -0,0 +1,34 @@
+package com.example.myapplication;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Converts raw 16-bit PCM into the normalized Float32 layout the TFLite audio models expect.
+ * Kept free of Android classes so the conversion can be benchmarked on the JVM.
+ */
+public final class PcmConverter {
+
+    // Normalization: Divide by 2^15 (32768.0f)
+    private static final float PCM_16_SCALE = 1.0f / 32768.0f;
+
+    private PcmConverter() {}
+
+    /**
+     * Converts the first {@code length} samples into a direct, native-order buffer (4 bytes per float).
+     * @return ByteBuffer positioned at 0, ready for the TFLite interpreter.
+     */
+    public static ByteBuffer toFloat32Buffer(short[] pcm, int length) {
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(length * 4)
+                .order(ByteOrder.nativeOrder());
+
+        FloatBuffer floatBuffer = byteBuffer.asFloatBuffer();
+        for (int i = 0; i < length; i++) {
+            floatBuffer.put(pcm[i] * PCM_16_SCALE);
+        }
+
+        byteBuffer.position(0);
+        return byteBuffer;
+    }
+}
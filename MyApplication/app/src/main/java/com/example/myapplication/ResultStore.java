@@ -0,0 +1,381 @@
+package com.example.myapplication;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only on-device history of analysis results.
+ *
+ * Layout:
+ *  - results.log: fixed-size little-endian records (RECORD_SIZE bytes each), in timestamp order.
+ *  - results.idx: memory-mapped sparse time index, one long (first timestamp) per BLOCK_RECORDS records.
+ *
+ * {@link #append} only enqueues; a single background writer drains the queue and writes whole batches,
+ * so the inference thread never waits on disk I/O. Timestamps are clamped to be non-decreasing, which
+ * keeps the log sorted and lets range scans binary-search the index.
+ */
+public class ResultStore implements AutoCloseable {
+    private static final String TAG = "ResultStore";
+
+    public static final int MODE_TEXT = 0;
+    public static final int MODE_AUDIO = 1;
+
+    // --- Record layout ---
+    // long timestamp | long inputHash | byte mode | byte label | byte probCount | byte reserved | float[MAX_PROBABILITIES]
+    public static final int MAX_PROBABILITIES = 11;
+    static final int RECORD_SIZE = 8 + 8 + 4 + MAX_PROBABILITIES * 4; // 64 bytes
+    static final int BLOCK_RECORDS = 256;
+
+    private static final String LOG_FILE = "results.log";
+    private static final String INDEX_FILE = "results.idx";
+    private static final int INDEX_GROW_ENTRIES = 64 * 1024; // Remap the index in 512 KB steps
+
+    private static final long SCAN_CHUNK_RECORDS = 1 << 20; // 64 MB per scan mapping
+
+    private static final int MAX_BATCH = 512;
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MS = 200;
+
+    private final FileChannel log;
+    private final FileChannel indexChannel;
+    private volatile MappedByteBuffer index;
+
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    // Set under appendLock, so no append can enqueue after the writer has seen it
+    private final Object appendLock = new Object();
+    private volatile boolean closed;
+
+    // Written only by the writer thread; readers use recordCount as the publication point
+    private volatile long recordCount;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Receives records during a scan. {@code probabilities} is reused between calls; copy it to keep it. */
+    public interface RecordVisitor {
+        void visit(long timestampMs, int mode, int label, float[] probabilities, int probCount, long inputHash);
+    }
+
+    /** Per-label counts and mean probabilities over a time range. */
+    public static class LabelAggregate {
+        public final long[] counts;            // Results whose top label was i
+        public final float[] meanProbabilities; // Mean probability of class i over all results
+        public long total;
+
+        LabelAggregate(int numClasses) {
+            counts = new long[numClasses];
+            meanProbabilities = new float[numClasses];
+        }
+    }
+
+    private static class PendingRecord {
+        final long timestampMs;
+        final long inputHash;
+        final int mode;
+        final int label;
+        final float[] probabilities;
+        final CountDownLatch flushed; // Non-null only for flush markers
+
+        PendingRecord(long timestampMs, long inputHash, int mode, int label, float[] probabilities, CountDownLatch flushed) {
+            this.timestampMs = timestampMs;
+            this.inputHash = inputHash;
+            this.mode = mode;
+            this.label = label;
+            this.probabilities = probabilities;
+            this.flushed = flushed;
+        }
+    }
+
+    /**
+     * Opens (or creates) the history in directory. This reads the log to rebuild the index, so call it off
+     * the UI thread.
+     */
+    public ResultStore(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        log = new RandomAccessFile(new File(directory, LOG_FILE), "rw").getChannel();
+        indexChannel = new RandomAccessFile(new File(directory, INDEX_FILE), "rw").getChannel();
+
+        // Drop a torn trailing record left by a crash mid-write
+        long records = log.size() / RECORD_SIZE;
+        log.truncate(records * RECORD_SIZE);
+
+        mapIndex(blockCount(records));
+        rebuildIndex(records);
+        recordCount = records;
+
+        writer = new Thread(this::writeLoop, "ResultStore-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues one result for writing; never blocks. Probabilities are copied (up to MAX_PROBABILITIES).
+     * @return false if the store is closed or the write queue is full and the result was dropped.
+     */
+    public boolean append(long timestampMs, int mode, int label, float[] probabilities, int probCount, long inputHash) {
+        float[] copy = new float[Math.min(probCount, MAX_PROBABILITIES)];
+        System.arraycopy(probabilities, 0, copy, 0, copy.length);
+        PendingRecord record = new PendingRecord(timestampMs, inputHash, mode, label, copy, null);
+        synchronized (appendLock) {
+            if (closed) return false;
+            if (!queue.offer(record)) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until everything appended before this call is on disk (not for the inference thread).
+     * Returns at once if the store is closed, as close() itself writes what was queued.
+     */
+    public void flush() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        synchronized (appendLock) {
+            if (closed) return;
+            queue.put(new PendingRecord(0, 0, 0, 0, null, latch));
+        }
+        latch.await();
+    }
+
+    /** Number of records written so far (queued records are not included). */
+    public long size() {
+        return recordCount;
+    }
+
+    /** Results dropped because the write queue was full. */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    // --- Writer thread ---
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_BATCH * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (true) {
+            try {
+                PendingRecord first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch, buffer);
+                }
+            } catch (InterruptedException e) {
+                // Only close() ends the writer
+            } catch (IOException e) {
+                // Keep the writer alive; the batch is lost but later results can still be stored
+                dropped.addAndGet(batch.size());
+                Log.e(TAG, "Failed to write results batch", e);
+            } finally {
+                for (PendingRecord record : batch) {
+                    if (record.flushed != null) record.flushed.countDown();
+                }
+                batch.clear();
+            }
+            // Once closed is seen no append can follow, so an empty queue stays empty
+            if (closed && queue.isEmpty()) break;
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch, ByteBuffer buffer) throws IOException {
+        long count = recordCount;
+        long firstNew = count;
+        buffer.clear();
+        for (PendingRecord record : batch) {
+            if (record.flushed != null) continue;
+
+            long timestamp = Math.max(record.timestampMs, lastTimestamp);
+            lastTimestamp = timestamp;
+            if (count % BLOCK_RECORDS == 0) {
+                ensureIndexCapacity(count / BLOCK_RECORDS + 1);
+                index.putLong((int) (count / BLOCK_RECORDS) * 8, timestamp);
+            }
+
+            buffer.putLong(timestamp);
+            buffer.putLong(record.inputHash);
+            buffer.put((byte) record.mode);
+            buffer.put((byte) record.label);
+            buffer.put((byte) record.probabilities.length);
+            buffer.put((byte) 0);
+            for (int i = 0; i < MAX_PROBABILITIES; i++) {
+                buffer.putFloat(i < record.probabilities.length ? record.probabilities[i] : 0f);
+            }
+            count++;
+        }
+        if (count == firstNew) return;
+
+        buffer.flip();
+        long position = firstNew * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            position += log.write(buffer, position);
+        }
+        recordCount = count;
+    }
+
+    // --- Index ---
+
+    private static long blockCount(long records) {
+        return (records + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+    }
+
+    private void mapIndex(long minEntries) throws IOException {
+        long entries = Math.max(INDEX_GROW_ENTRIES, (minEntries / INDEX_GROW_ENTRIES + 1) * INDEX_GROW_ENTRIES);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, entries * 8);
+        index.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void ensureIndexCapacity(long entries) throws IOException {
+        if (entries * 8 > index.capacity()) {
+            mapIndex(entries);
+        }
+    }
+
+    // The index is derived data: recompute the first timestamp of every block from the log on open.
+    // The log is read through bounded read-only mappings rather than one read() per block.
+    private void rebuildIndex(long records) throws IOException {
+        long chunkRecords = SCAN_CHUNK_RECORDS - SCAN_CHUNK_RECORDS % BLOCK_RECORDS;
+        for (long first = 0; first < records; first += chunkRecords) {
+            long count = Math.min(records - first, chunkRecords);
+            MappedByteBuffer map = log.map(FileChannel.MapMode.READ_ONLY, first * RECORD_SIZE, count * RECORD_SIZE);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            for (long record = 0; record < count; record += BLOCK_RECORDS) {
+                index.putLong((int) ((first + record) / BLOCK_RECORDS) * 8, map.getLong((int) (record * RECORD_SIZE)));
+            }
+            if (first + count == records) {
+                lastTimestamp = map.getLong((int) ((count - 1) * RECORD_SIZE));
+            }
+        }
+    }
+
+    // First record whose block may contain timestamps >= fromMs
+    private long firstCandidateRecord(long fromMs, long records) {
+        MappedByteBuffer idx = index;
+        long lo = 0, hi = blockCount(records) - 1, block = 0;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            if (idx.getLong((int) mid * 8) < fromMs) {
+                block = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return block * BLOCK_RECORDS;
+    }
+
+    // --- Reads ---
+
+    /**
+     * Visits every record with fromMs &lt;= timestamp &lt; toMs, in time order, reading the log through a
+     * read-only memory map. Safe to call while the writer is appending.
+     */
+    public void scan(long fromMs, long toMs, RecordVisitor visitor) throws IOException {
+        long records = recordCount;
+        if (records == 0 || fromMs >= toMs) return;
+
+        float[] probabilities = new float[MAX_PROBABILITIES];
+        long record = firstCandidateRecord(fromMs, records);
+        while (record < records) {
+            // Map in bounded windows so very large logs never exceed a single mapping's int range
+            long chunkRecords = Math.min(records - record, SCAN_CHUNK_RECORDS);
+            MappedByteBuffer map = log.map(FileChannel.MapMode.READ_ONLY, record * RECORD_SIZE, chunkRecords * RECORD_SIZE);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+
+            for (int offset = 0; offset < map.capacity(); offset += RECORD_SIZE) {
+                long timestamp = map.getLong(offset);
+                if (timestamp < fromMs) continue;
+                if (timestamp >= toMs) return;
+
+                int probCount = map.get(offset + 18);
+                for (int i = 0; i < probCount; i++) {
+                    probabilities[i] = map.getFloat(offset + 20 + i * 4);
+                }
+                visitor.visit(timestamp, map.get(offset + 16), map.get(offset + 17), probabilities, probCount, map.getLong(offset + 8));
+            }
+            record += chunkRecords;
+        }
+    }
+
+    /**
+     * Label counts and mean probabilities for one mode over [fromMs, toMs).
+     */
+    public LabelAggregate aggregate(long fromMs, long toMs, int mode, int numClasses) throws IOException {
+        LabelAggregate aggregate = new LabelAggregate(numClasses);
+        double[] sums = new double[numClasses];
+        scan(fromMs, toMs, (timestamp, recordMode, label, probabilities, probCount, hash) -> {
+            if (recordMode != mode) return;
+            aggregate.total++;
+            if (label >= 0 && label < numClasses) aggregate.counts[label]++;
+            for (int i = 0; i < Math.min(probCount, numClasses); i++) sums[i] += probabilities[i];
+        });
+        for (int i = 0; i < numClasses && aggregate.total > 0; i++) {
+            aggregate.meanProbabilities[i] = (float) (sums[i] / aggregate.total);
+        }
+        return aggregate;
+    }
+
+    // --- Input hashing (FNV-1a 64) ---
+
+    public static long hash(CharSequence text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    public static long hash(ByteBuffer data) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = data.position(); i < data.limit(); i++) {
+            h ^= data.get(i) & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Drains pending results to disk and releases the files. Waits for the writer, so call it off the UI thread.
+     * Later appends return false.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (closed) return;
+            closed = true;
+        }
+        // Wake the writer instead of letting it sit out its poll interval
+        queue.offer(new PendingRecord(0, 0, 0, 0, null, new CountDownLatch(1)));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Release flush() callers whose marker the writer did not reach
+        for (PendingRecord record; (record = queue.poll()) != null; ) {
+            if (record.flushed != null) record.flushed.countDown();
+        }
+        log.force(false);
+        index.force();
+        log.close();
+        indexChannel.close();
+    }
+}
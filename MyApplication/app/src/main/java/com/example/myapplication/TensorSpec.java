@@ -0,0 +1,60 @@
+package com.example.myapplication;
+
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.Tensor;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of one model tensor as reported by the Interpreter: shape, dtype and quantization.
+ * Used by ModelConfig's metadata mode instead of hardcoded sizes.
+ */
+public class TensorSpec {
+    public final String name;
+    public final int[] shape;          // Current (resolved) shape
+    public final int[] shapeSignature; // Declared shape; -1 marks a variable dimension
+    public final DataType dataType;
+    public final float scale;          // Quantization scale (0 if not quantized)
+    public final int zeroPoint;        // Quantization zero point
+
+    public TensorSpec(String name, int[] shape, int[] shapeSignature, DataType dataType, float scale, int zeroPoint) {
+        this.name = name;
+        this.shape = shape;
+        this.shapeSignature = shapeSignature;
+        this.dataType = dataType;
+        this.scale = scale;
+        this.zeroPoint = zeroPoint;
+    }
+
+    public static TensorSpec of(Tensor tensor) {
+        Tensor.QuantizationParams quant = tensor.quantizationParams();
+        return new TensorSpec(
+                tensor.name(),
+                tensor.shape(),
+                tensor.shapeSignature(),
+                tensor.dataType(),
+                quant.getScale(),
+                quant.getZeroPoint()
+        );
+    }
+
+    public boolean isQuantized() {
+        return scale != 0f && (dataType == DataType.UINT8 || dataType == DataType.INT8);
+    }
+
+    /** True if dimension {@code dim} was declared as -1 and may be resized per call. */
+    public boolean isVariable(int dim) {
+        return shapeSignature != null && dim < shapeSignature.length && shapeSignature[dim] == -1;
+    }
+
+    /** Size of the last dimension (e.g. sequence length for text inputs, class count for logits). */
+    public int lastDim() {
+        return shape.length == 0 ? 1 : shape[shape.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + dataType + " " + Arrays.toString(shape) + " sig=" + Arrays.toString(shapeSignature)
+                + (isQuantized() ? " q(" + scale + ", " + zeroPoint + ")" : "");
+    }
+}
@@ -2,24 +2,51 @@ package com.example.myapplication;
 
 import android.content.Context;
 import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+import org.tensorflow.lite.DataType;
 import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Wraps the TFLite Interpreter. With a metadata-mode config ({@link ModelConfig#discoverFromModel()})
+ * the effective sizes are read from the model itself and exposed through {@link #getConfig()}.
+ *
+ * Output arrays and input buffers are allocated once per tensor shape and reused, so results
+ * returned by the run methods are only valid until the next call.
+ */
 public class TfLitePredictor {
 
+    private static final String TAG = "TfLitePredictor";
+
     private Interpreter tflite;
     private ModelConfig config;
 
+    // Buffers reused across calls; re-allocated only when the tensor shape/size changes
+    private final ByteBuffer[] inputBuffers;
+    private ByteBuffer rawOutput;
+    private float[][] output;
+    private int[] outputShape;
+
     public TfLitePredictor(Context context, ModelConfig config) throws IOException {
-        this.config = config;
         MappedByteBuffer tfliteModel = loadModelFile(context, config.modelFileName);
         tflite = new Interpreter(tfliteModel);
+        inputBuffers = new ByteBuffer[tflite.getInputTensorCount()];
+
+        if (config.discoverShapes) {
+            config = config.resolve(readSpecs(true), readSpecs(false));
+            Log.d(TAG, "Discovered " + config.modelFileName + ": inputs=" + Arrays.toString(config.inputSpecs)
+                    + " outputs=" + Arrays.toString(config.outputSpecs));
+        }
+        this.config = config;
     }
 
     private MappedByteBuffer loadModelFile(Context context, String modelPath) throws IOException {
@@ -31,27 +58,126 @@ public class TfLitePredictor {
         return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
     }
 
+    private TensorSpec[] readSpecs(boolean inputs) {
+        int count = inputs ? tflite.getInputTensorCount() : tflite.getOutputTensorCount();
+        TensorSpec[] specs = new TensorSpec[count];
+        for (int i = 0; i < count; i++) {
+            specs[i] = TensorSpec.of(inputs ? tflite.getInputTensor(i) : tflite.getOutputTensor(i));
+        }
+        return specs;
+    }
+
+    /**
+     * The effective configuration. In metadata mode this holds the sizes discovered from the model.
+     */
+    public ModelConfig getConfig() {
+        return config;
+    }
+
+    /** Current shape, dtype and quantization of an input tensor (reflects the last resize). */
+    public TensorSpec getInputSpec(int index) {
+        return TensorSpec.of(tflite.getInputTensor(index));
+    }
+
+    /** Current shape, dtype and quantization of an output tensor (reflects the last resize). */
+    public TensorSpec getOutputSpec(int index) {
+        return TensorSpec.of(tflite.getOutputTensor(index));
+    }
+
+    /**
+     * Resizes an input's variable dimensions (e.g. [1, samples] for variable-length audio) and returns a
+     * cleared, native-order direct buffer with exactly the tensor's byte size to fill before running.
+     * The buffer is reused while its capacity suffices, so the same interpreter serves any input length.
+     */
+    public ByteBuffer resizeInput(int inputIndex, int... shape) {
+        ensureInputShape(inputIndex, shape);
+        int bytes = tflite.getInputTensor(inputIndex).numBytes();
+
+        ByteBuffer buffer = inputBuffers[inputIndex];
+        if (buffer == null || buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+            inputBuffers[inputIndex] = buffer;
+        }
+        buffer.clear();
+        buffer.limit(bytes);
+        return buffer;
+    }
+
+    private void ensureInputShape(int inputIndex, int[] shape) {
+        if (!Arrays.equals(tflite.getInputTensor(inputIndex).shape(), shape)) {
+            tflite.resizeInput(inputIndex, shape);
+            tflite.allocateTensors();
+        }
+    }
+
     /**
      * Runs inference on the model using a single pre-packaged input buffer (USED for Audio).
+     * The returned rows are owned by this predictor and overwritten by the next run call; copy them to keep
+     * results across calls. Not thread safe.
      */
     public float[][] runInference(ByteBuffer input) {
-        float[][] output = new float[1][config.outputClasses];
-        Map<Integer, Object> outputs = new HashMap<>();
-        outputs.put(config.outputTensorIndex, output);
-        Object[] inputsArray = {input};
-        tflite.runForMultipleInputsOutputs(inputsArray, outputs);
-        return output;
+        return run(new Object[]{input});
     }
 
     /**
      * Runs inference on the model using multiple input buffers (USED for Sentiment/Text).
+     * The returned rows are owned by this predictor and overwritten by the next run call; copy them to keep
+     * results across calls. Not thread safe.
      */
     public float[][] runInference(ByteBuffer[] inputs) {
-        float[][] output = new float[1][config.outputClasses];
-        Map<Integer, Object> outputs = new HashMap<>();
-        outputs.put(config.outputTensorIndex, output);
+        return run(inputs);
+    }
+
+    /**
+     * Runs ONE interpreter invocation over a batch of equally sized audio windows (USED for multi-window Emotion).
+     * The input tensor is resized to [batchSize, samplesPerItem] only when the shape actually changes.
+     * @param input Float32 buffer holding batchSize * samplesPerItem samples, window after window.
+     * @return logits, one row per window; owned by this predictor and overwritten by the next
+     *         run call, so copy them to keep results across calls. Not thread safe.
+     */
+    public float[][] runBatchedInference(ByteBuffer input, int batchSize, int samplesPerItem) {
+        ensureInputShape(0, new int[]{batchSize, samplesPerItem});
+        return run(new Object[]{input});
+    }
+
+    /**
+     * Runs the interpreter into a raw output buffer sized from the output tensor, then converts it to
+     * float rows (dequantizing UINT8/INT8 outputs with the tensor's scale and zero point).
+     */
+    private float[][] run(Object[] inputs) {
+        Tensor outputTensor = tflite.getOutputTensor(config.outputTensorIndex);
+        int[] shape = outputTensor.shape();
+        if (!Arrays.equals(shape, outputShape)) {
+            int cols = shape.length == 0 ? 1 : shape[shape.length - 1];
+            int rows = cols == 0 ? 0 : outputTensor.numElements() / cols;
+            rawOutput = ByteBuffer.allocateDirect(outputTensor.numBytes()).order(ByteOrder.nativeOrder());
+            output = new float[rows][cols];
+            outputShape = shape;
+        }
 
+        rawOutput.rewind();
+        Map<Integer, Object> outputs = new HashMap<>();
+        outputs.put(config.outputTensorIndex, rawOutput);
         tflite.runForMultipleInputsOutputs(inputs, outputs);
+        rawOutput.rewind();
+
+        DataType type = outputTensor.dataType();
+        Tensor.QuantizationParams quant = outputTensor.quantizationParams();
+        for (float[] row : output) {
+            for (int c = 0; c < row.length; c++) {
+                switch (type) {
+                    case UINT8:
+                        row[c] = ((rawOutput.get() & 0xFF) - quant.getZeroPoint()) * quant.getScale();
+                        break;
+                    case INT8:
+                        row[c] = (rawOutput.get() - quant.getZeroPoint()) * quant.getScale();
+                        break;
+                    default:
+                        row[c] = rawOutput.getFloat();
+                        break;
+                }
+            }
+        }
         return output;
     }
 
@@ -60,4 +186,4 @@ public class TfLitePredictor {
             tflite.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,15 @@
 package com.example.myapplication;
 
-import android.content.Context;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.HashMap;
 
 /**
  * Handles loading and lookup for WordPiece vocabulary files (vocab.txt).
  * This is specific to BERT/DistilBERT family tokenization.
+ * Has no Android dependencies so it can also be exercised on the JVM (see :benchmark).
  */
 public class Vocabulary {
 
@@ -18,11 +19,12 @@ public class Vocabulary {
     private final int clsId = 101;
     private final int sepId = 102;
 
-    public Vocabulary(Context context, String vocabFile) throws IOException {
-        if (vocabFile == null) return; // Skip initialization for models without vocab (e.g., Audio)
-
-        // Load the vocab file from assets
-        BufferedReader reader = new BufferedReader(new InputStreamReader(context.getAssets().open(vocabFile)));
+    /**
+     * Reads one token per line; the line number is the token id. The stream is closed when done.
+     * On Android pass {@code context.getAssets().open(vocabFile)}.
+     */
+    public Vocabulary(InputStream vocabStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(vocabStream));
         String line;
         int idx = 0;
         while ((line = reader.readLine()) != null) {
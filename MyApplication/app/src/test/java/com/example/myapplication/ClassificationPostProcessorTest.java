@@ -0,0 +1,44 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClassificationPostProcessorTest {
+    @Test
+    public void argmax_allNegativeLogits() {
+        assertEquals(2, ClassificationPostProcessor.argmax(new float[]{-3f, -2f, -0.5f, -7f}, 4));
+    }
+
+    @Test
+    public void softmax_isStableForLargeLogits() {
+        float[] probs = new float[3];
+        ClassificationPostProcessor.softmax(new float[]{1000f, 1000f, -1000f}, 3, probs);
+        assertEquals(0.5f, probs[0], 1e-6f);
+        assertEquals(0.5f, probs[1], 1e-6f);
+        assertEquals(0f, probs[2], 1e-6f);
+    }
+
+    @Test
+    public void softmax_temperatureFlattensDistribution() {
+        float[] sharp = new float[2];
+        float[] flat = new float[2];
+        float[] logits = {2f, 0f};
+        ClassificationPostProcessor.softmax(logits, 0, 2, 1f, sharp, 0);
+        ClassificationPostProcessor.softmax(logits, 0, 2, 4f, flat, 0);
+        assertTrue(flat[0] < sharp[0]);
+        assertEquals(1f, flat[0] + flat[1], 1e-6f);
+    }
+
+    @Test
+    public void classify_fillsTopK() {
+        String[] labels = {"Angry", "Disgust", "Fear", "Happy", "Neutral", "Sad", "Surprise"};
+        ClassificationResult result = new ClassificationResult(labels, 3);
+        ClassificationPostProcessor.classify(new float[]{0.1f, -1f, 0.3f, 2.5f, 1.9f, -4f, 0f}, 7, 1f, result);
+
+        assertEquals(3, result.topCount);
+        assertArrayEquals(new int[]{3, 4, 2}, result.topIndices);
+        assertEquals("Happy", result.topLabel());
+        assertTrue(result.topProbabilities[0] >= result.topProbabilities[1]);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EmotionWindowScorerTest {
+    @Test
+    public void windowStarts_evenlyDividedClip() {
+        assertArrayEquals(new int[]{0, 16000, 32000}, EmotionWindowScorer.windowStarts(64000, 32000, 16000));
+    }
+
+    @Test
+    public void windowStarts_lastWindowAlignedToEnd() {
+        assertArrayEquals(new int[]{0, 16000, 28000}, EmotionWindowScorer.windowStarts(60000, 32000, 16000));
+    }
+
+    @Test
+    public void windowStarts_shortClipIsSingleWindow() {
+        assertArrayEquals(new int[]{0}, EmotionWindowScorer.windowStarts(8000, 32000, 16000));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+import org.tensorflow.lite.DataType;
+
+import static org.junit.Assert.*;
+
+public class ModelConfigTest {
+    private static TensorSpec spec(int[] shape, int[] signature) {
+        return new TensorSpec("t", shape, signature, DataType.FLOAT32, 0f, 0);
+    }
+
+    @Test
+    public void resolve_readsSizesFromModel() {
+        ModelConfig resolved = ModelConfig.getSentimentConfig().discoverFromModel().resolve(
+                new TensorSpec[]{spec(new int[]{1, 64}, new int[]{1, 64}), spec(new int[]{1, 64}, new int[]{1, 64})},
+                new TensorSpec[]{spec(new int[]{1, 2}, new int[]{1, 2})});
+
+        assertEquals(64, resolved.sequenceLength);
+        assertEquals(2, resolved.numberOfInputs);
+        assertEquals(2, resolved.outputClasses);
+        assertTrue(resolved.discoverShapes);
+    }
+
+    @Test
+    public void resolve_variableAudioLength() {
+        ModelConfig resolved = ModelConfig.getEmotionConfig().discoverFromModel().resolve(
+                new TensorSpec[]{spec(new int[]{1, 1}, new int[]{-1, -1})},
+                new TensorSpec[]{spec(new int[]{1, 7}, new int[]{-1, 7})});
+
+        assertEquals(-1, resolved.sequenceLength);
+        assertEquals(7, resolved.outputClasses);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void resolve_labelMismatchFails() {
+        ModelConfig.getEmotionConfig().discoverFromModel().resolve(
+                new TensorSpec[]{spec(new int[]{1, 16000}, new int[]{1, -1})},
+                new TensorSpec[]{spec(new int[]{1, 8}, new int[]{1, 8})});
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.myapplication;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResultStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rangeScanAndAggregateSurviveReopen() throws Exception {
+        File dir = folder.newFolder("history");
+        try (ResultStore store = new ResultStore(dir)) {
+            for (int i = 0; i < 1000; i++) {
+                float[] probs = i % 4 == 0 ? new float[]{0.9f, 0.1f} : new float[]{0.2f, 0.8f};
+                assertTrue(store.append(1000L + i, ResultStore.MODE_TEXT, i % 4 == 0 ? 0 : 1, probs, 2, i));
+            }
+            store.flush();
+            assertEquals(1000, store.size());
+        }
+
+        try (ResultStore store = new ResultStore(dir)) {
+            assertEquals(1000, store.size());
+
+            List<Long> timestamps = new ArrayList<>();
+            store.scan(1500, 1510, (ts, mode, label, probs, count, hash) -> timestamps.add(ts));
+            assertEquals(10, timestamps.size());
+            assertEquals(1500L, (long) timestamps.get(0));
+
+            ResultStore.LabelAggregate aggregate = store.aggregate(1000, 2000, ResultStore.MODE_TEXT, 2);
+            assertEquals(1000, aggregate.total);
+            assertEquals(250, aggregate.counts[0]);
+            assertEquals(750, aggregate.counts[1]);
+            assertEquals(0.375f, aggregate.meanProbabilities[0], 1e-4f);
+
+            assertEquals(0, store.aggregate(1000, 2000, ResultStore.MODE_AUDIO, 2).total);
+        }
+    }
+
+    @Test
+    public void closeWritesPendingAppendsAndRejectsLaterOnes() throws Exception {
+        File dir = folder.newFolder("history");
+        ResultStore store = new ResultStore(dir);
+        for (int i = 0; i < 600; i++) {
+            assertTrue(store.append(i, ResultStore.MODE_AUDIO, 0, new float[]{1f}, 1, i));
+        }
+        store.close();
+        assertFalse(store.append(600, ResultStore.MODE_AUDIO, 0, new float[]{1f}, 1, 600));
+        assertEquals(0, store.droppedCount());
+        store.flush(); // returns at once: the writer has exited
+
+        // Reopening rebuilds the index from the log: a scan from the third block starts there
+        try (ResultStore reopened = new ResultStore(dir)) {
+            assertEquals(600, reopened.size());
+            List<Long> timestamps = new ArrayList<>();
+            reopened.scan(520, 600, (ts, mode, label, probs, count, hash) -> timestamps.add(ts));
+            assertEquals(80, timestamps.size());
+            assertEquals(520L, (long) timestamps.get(0));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+// JVM-only JMH benchmarks for the Android-free hot paths of :app
+// (tokenization, vocabulary lookup/loading, PCM conversion, argmax/softmax/top-k post-processing).
+//
+// Run:   ./gradlew :benchmark:jmh
+// Report: build/results/jmh/results.json (throughput + gc allocation rate per op)
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Compile the benchmarked classes straight from :app so we always measure the shipped code.
+// Only files without android.* imports may be listed here.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/example/myapplication/TextPreprocessor.java",
+                "com/example/myapplication/Vocabulary.java",
+                "com/example/myapplication/PcmConverter.java",
+                "com/example/myapplication/ClassificationPostProcessor.java",
+                "com/example/myapplication/ClassificationResult.java"
+            )
+        }
+    }
+    named("jmh") {
+        // Use the real WordPiece vocabulary shipped with the app as the lookup fixture
+        resources.srcDir("../app/src/main/assets/emotion_vocab")
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    benchmarkMode.add("thrpt")
+    timeUnit.set("ms")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    // Narrow a run with -PjmhIncludes=Vocabulary
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
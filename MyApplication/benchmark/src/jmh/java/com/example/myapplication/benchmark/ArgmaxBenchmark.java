@@ -0,0 +1,49 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.ClassificationPostProcessor;
+import com.example.myapplication.ClassificationResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Post-processing of a logits row: plain argmax and the full softmax + top-3 classification.
+ * 2 = sentiment head, 7 = emotion head, 1000 = a large head to expose the loop cost.
+ * classify() is expected to report ~0 B/op allocation.
+ */
+@State(Scope.Thread)
+public class ArgmaxBenchmark {
+
+    @Param({"2", "7", "1000"})
+    public int classes;
+
+    private float[][] rows;
+    private int next;
+    private ClassificationResult result;
+
+    @Setup
+    public void setUp() {
+        rows = new float[64][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Fixtures.randomLogits(classes, i);
+        }
+        result = new ClassificationResult(new String[classes], 3);
+    }
+
+    @Benchmark
+    public int argmax() {
+        float[] row = rows[next];
+        next = (next + 1) & (rows.length - 1);
+        return ClassificationPostProcessor.argmax(row, classes);
+    }
+
+    @Benchmark
+    public ClassificationResult classify() {
+        float[] row = rows[next];
+        next = (next + 1) & (rows.length - 1);
+        return ClassificationPostProcessor.classify(row, classes, 1f, result);
+    }
+}
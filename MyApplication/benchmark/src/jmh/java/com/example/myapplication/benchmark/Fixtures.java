@@ -0,0 +1,95 @@
+package com.example.myapplication.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared, deterministic inputs for the benchmarks: a review-style text corpus, the app's
+ * WordPiece vocabulary and synthetic 16 kHz speech-like PCM.
+ */
+final class Fixtures {
+
+    static final String VOCAB_RESOURCE = "/vocab.txt";
+    static final String CORPUS_RESOURCE = "/corpus/reviews.txt";
+
+    // Matches AudioPreprocessor: 16 kHz mono, 4 second recording window
+    static final int SAMPLE_RATE = 16000;
+    static final int RECORDING_SECONDS = 4;
+
+    // Same split TextPreprocessor applies before vocabulary lookup
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\w+|[^\\w\\s]+");
+
+    private Fixtures() {}
+
+    static byte[] readResource(String name) throws IOException {
+        try (InputStream in = Fixtures.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark resource " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[64 * 1024];
+            int r;
+            while ((r = in.read(buf)) != -1) out.write(buf, 0, r);
+            return out.toByteArray();
+        }
+    }
+
+    static String[] corpus() throws IOException {
+        String text = new String(readResource(CORPUS_RESOURCE), StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            if (!line.trim().isEmpty()) lines.add(line);
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    /** Lower-cased word/punctuation tokens of the corpus, in the same shape TextPreprocessor produces. */
+    static String[] corpusTokens() throws IOException {
+        List<String> tokens = new ArrayList<>();
+        for (String line : corpus()) {
+            Matcher matcher = TOKEN_PATTERN.matcher(line.toLowerCase());
+            while (matcher.find()) {
+                tokens.add(matcher.group());
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Speech-like signal: a pitch-varying harmonic voice with syllable-rate amplitude envelope,
+     * short pauses and background noise. Deterministic for a given seed.
+     */
+    static short[] speechLikePcm(int samples, long seed) {
+        Random random = new Random(seed);
+        short[] pcm = new short[samples];
+        double phase = 0;
+        for (int i = 0; i < samples; i++) {
+            double t = (double) i / SAMPLE_RATE;
+            double pitch = 140 + 40 * Math.sin(2 * Math.PI * 0.7 * t);
+            phase += 2 * Math.PI * pitch / SAMPLE_RATE;
+            double voice = Math.sin(phase) + 0.5 * Math.sin(2 * phase) + 0.25 * Math.sin(3 * phase);
+            double envelope = Math.max(0, Math.sin(2 * Math.PI * 4 * t)); // ~4 syllables per second
+            if ((int) (t * 2) % 5 == 4) envelope = 0; // pause every 2.5 s
+            double noise = random.nextGaussian() * 0.01;
+            double value = 0.3 * voice * envelope + noise;
+            pcm[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value * 32767));
+        }
+        return pcm;
+    }
+
+    static float[] randomLogits(int classes, long seed) {
+        Random random = new Random(seed);
+        float[] logits = new float[classes];
+        for (int i = 0; i < classes; i++) {
+            logits[i] = (float) (random.nextGaussian() * 4);
+        }
+        return logits;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.PcmConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Short-to-float PCM conversion as done after every recording in AudioPreprocessor.
+ */
+@State(Scope.Thread)
+public class PcmConversionBenchmark {
+
+    /** Recording length in seconds; 4 is what the app records today. */
+    @Param({"1", "4", "30"})
+    public int seconds;
+
+    private short[] pcm;
+
+    @Setup
+    public void setUp() {
+        pcm = Fixtures.speechLikePcm(seconds * Fixtures.SAMPLE_RATE, 42L);
+    }
+
+    @Benchmark
+    public ByteBuffer toFloat32Buffer() {
+        return PcmConverter.toFloat32Buffer(pcm, pcm.length);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.TextPreprocessor;
+import com.example.myapplication.Vocabulary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Measures {@link TextPreprocessor#packageTextInputs} end to end (regex split, lookups, buffer packing)
+ * while cycling through the review corpus.
+ */
+@State(Scope.Thread)
+public class TextPreprocessorBenchmark {
+
+    @Param({"128"})
+    public int maxLen;
+
+    private Vocabulary vocab;
+    private String[] corpus;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        vocab = new Vocabulary(new ByteArrayInputStream(Fixtures.readResource(Fixtures.VOCAB_RESOURCE)));
+        corpus = Fixtures.corpus();
+    }
+
+    @Benchmark
+    public ByteBuffer[] packageTextInputs() {
+        String text = corpus[next];
+        next = next + 1 == corpus.length ? 0 : next + 1;
+        return TextPreprocessor.packageTextInputs(text, vocab, maxLen);
+    }
+}
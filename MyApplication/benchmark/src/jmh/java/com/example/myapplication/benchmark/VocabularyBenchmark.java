@@ -0,0 +1,43 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.Vocabulary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Token lookups (mix of in-vocabulary words and misses falling back to [UNK]) and full vocab loading.
+ * Loading reads from an in-memory copy of vocab.txt so disk speed does not leak into the result.
+ */
+@State(Scope.Thread)
+public class VocabularyBenchmark {
+
+    private byte[] vocabBytes;
+    private Vocabulary vocab;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        vocabBytes = Fixtures.readResource(Fixtures.VOCAB_RESOURCE);
+        vocab = new Vocabulary(new ByteArrayInputStream(vocabBytes));
+        tokens = Fixtures.corpusTokens();
+    }
+
+    @Benchmark
+    public int getIdOrUnknown() {
+        String token = tokens[next];
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return vocab.getIdOrUnknown(token);
+    }
+
+    @Benchmark
+    public Vocabulary loadVocabulary() throws IOException {
+        return new Vocabulary(new ByteArrayInputStream(vocabBytes));
+    }
+}
@@ -43,6 +43,10 @@ android {
             )
         }
     }
+    androidResources {
+        // ggml models are streamed straight from the APK by the native asset loader; keep them uncompressed
+        noCompress += "bin"
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -1,13 +1,17 @@
 #include <jni.h>
+#include <android/asset_manager.h>
+#include <android/asset_manager_jni.h>
 #include <android/log.h>
 
+#include <atomic>     // std::atomic
+#include <chrono>     // wall-clock run time
 #include <vector>     // std::vector
 #include <string>     // std::string
-#include <cstdio>     // FILE, fopen, fread, fclose
 #include <cstdint>    // int16_t
 #include <cstring>
 
 #include "whisper.h"
+#include "wav_reader.h"
 
 #define LOGI(...) __android_log_print(ANDROID_LOG_INFO, "WHISPER_JNI", __VA_ARGS__)
 #define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, "WHISPER_JNI", __VA_ARGS__)
@@ -40,6 +44,334 @@ Java_com_example_myapplication_WhisperBridge_free(JNIEnv*, jclass, jlong handle)
     if (ctx) whisper_free(ctx);
 }
 
+// ---- Model loading straight from the APK: whisper_model_loader over a streaming AAsset ----
+// whisper.cpp reads the weights into its own buffers either way, so streaming the asset (stored
+// uncompressed, see noCompress in build.gradle.kts) avoids the copy to internal storage without
+// ever holding a second full copy of the file in memory.
+static size_t asset_read(void* ctx, void* output, size_t read_size) {
+    int n = AAsset_read(static_cast<AAsset*>(ctx), output, read_size);
+    return n > 0 ? (size_t) n : 0;
+}
+
+static bool asset_is_eof(void* ctx) {
+    return AAsset_getRemainingLength64(static_cast<AAsset*>(ctx)) <= 0;
+}
+
+static void asset_close(void* ctx) {
+    AAsset_close(static_cast<AAsset*>(ctx));
+}
+
+// Opens the asset and runs the given whisper_init_with_params* variant over it; the loader closes the asset.
+static whisper_context* init_from_asset(JNIEnv* env, jobject assetManagerJ, jstring assetNameJ, bool no_state) {
+    AAssetManager* assetManager = AAssetManager_fromJava(env, assetManagerJ);
+    const char* assetName = env->GetStringUTFChars(assetNameJ, nullptr);
+    AAsset* asset = assetManager ? AAssetManager_open(assetManager, assetName, AASSET_MODE_STREAMING) : nullptr;
+    if (!asset) {
+        LOGE("Failed to open model asset %s", assetName);
+        env->ReleaseStringUTFChars(assetNameJ, assetName);
+        return nullptr;
+    }
+    env->ReleaseStringUTFChars(assetNameJ, assetName);
+
+    whisper_model_loader loader = {};
+    loader.context = asset;
+    loader.read = asset_read;
+    loader.eof = asset_is_eof;
+    loader.close = asset_close;
+
+    whisper_context_params params = whisper_context_default_params();
+    params.use_gpu = false;
+
+    return no_state ? whisper_init_with_params_no_state(&loader, params)
+                    : whisper_init_with_params(&loader, params);
+}
+
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_example_myapplication_WhisperBridge_initFromAsset(JNIEnv* env, jclass, jobject assetManager, jstring assetName) {
+    whisper_context* ctx = init_from_asset(env, assetManager, assetName, false);
+    if (!ctx) {
+        LOGE("Failed to init whisper context from asset");
+        return 0;
+    }
+
+    LOGI("Whisper init from asset OK");
+    return reinterpret_cast<jlong>(ctx);
+}
+
+// ---- Segment streaming: cached JVM / listener method, resolved once in JNI_OnLoad ----
+static JavaVM* g_vm = nullptr;
+static jmethodID g_onSegment = nullptr; // SegmentListener.onSegment(String, long, long)
+static jclass g_resultClass = nullptr;    // TranscriptionResult (global ref)
+static jmethodID g_resultInit = nullptr;
+
+extern "C"
+JNIEXPORT jint JNICALL
+JNI_OnLoad(JavaVM* vm, void*) {
+    g_vm = vm;
+    JNIEnv* env = nullptr;
+    if (vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_6) != JNI_OK) {
+        return JNI_ERR;
+    }
+    jclass listenerClass = env->FindClass("com/example/myapplication/SegmentListener");
+    if (!listenerClass) {
+        return JNI_ERR;
+    }
+    g_onSegment = env->GetMethodID(listenerClass, "onSegment", "(Ljava/lang/String;JJ)V");
+    env->DeleteLocalRef(listenerClass);
+
+    jclass resultClass = env->FindClass("com/example/myapplication/TranscriptionResult");
+    if (!resultClass) {
+        return JNI_ERR;
+    }
+    g_resultClass = static_cast<jclass>(env->NewGlobalRef(resultClass));
+    g_resultInit = env->GetMethodID(resultClass, "<init>", "([J[J[I[B[I[I[F[J[J)V");
+    env->DeleteLocalRef(resultClass);
+
+    return g_onSegment && g_resultInit ? JNI_VERSION_1_6 : JNI_ERR;
+}
+
+// Env for the calling thread; whisper invokes callbacks on the whisper_full thread, which is normally
+// the (attached) JNI caller, but attach defensively and detach again on scope exit if we had to.
+struct ScopedEnv {
+    JNIEnv* env = nullptr;
+    bool attached = false;
+
+    ScopedEnv() {
+        if (g_vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_6) == JNI_EDETACHED) {
+#ifdef __ANDROID__
+            attached = g_vm->AttachCurrentThread(&env, nullptr) == JNI_OK;
+#else
+            attached = g_vm->AttachCurrentThread(reinterpret_cast<void**>(&env), nullptr) == JNI_OK;
+#endif
+            if (!attached) env = nullptr;
+        }
+    }
+
+    ~ScopedEnv() {
+        if (attached) g_vm->DetachCurrentThread();
+    }
+};
+
+// Per-run callback state shared by the segment, abort and encoder-begin callbacks
+struct RunControl {
+    jobject listener;
+    std::atomic<bool>* abort_flag; // set from Java via WhisperBridge.abort, may be null
+    bool failed = false;           // listener threw: stop decoding and let the exception propagate to Java
+
+    bool aborted() const {
+        return abort_flag && abort_flag->load(std::memory_order_relaxed);
+    }
+};
+
+static void on_new_segment(whisper_context*, whisper_state* state, int n_new, void* user_data) {
+    auto* control = static_cast<RunControl*>(user_data);
+    ScopedEnv scoped;
+    JNIEnv* env = scoped.env;
+    if (!env || control->failed) return;
+
+    const int n_segments = whisper_full_n_segments_from_state(state);
+    for (int i = n_segments - n_new; i < n_segments; ++i) {
+        jstring text = env->NewStringUTF(whisper_full_get_segment_text_from_state(state, i));
+        // whisper timestamps are in 10 ms units
+        jlong t0 = whisper_full_get_segment_t0_from_state(state, i) * 10;
+        jlong t1 = whisper_full_get_segment_t1_from_state(state, i) * 10;
+        env->CallVoidMethod(control->listener, g_onSegment, text, t0, t1);
+        env->DeleteLocalRef(text);
+        if (env->ExceptionCheck()) {
+            control->failed = true;
+            return;
+        }
+    }
+}
+
+// Polled by ggml during graph computation, so cancellation takes effect within a decoder step
+static bool should_abort(void* user_data) {
+    auto* control = static_cast<RunControl*>(user_data);
+    return control->failed || control->aborted();
+}
+
+// Checked before each 30 s encoder pass; returning false skips the encoder
+static bool on_encoder_begin(whisper_context*, whisper_state*, void* user_data) {
+    return !should_abort(user_data);
+}
+
+// ---- Abort flags: one per cancellable run, owned by the Java task ----
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_example_myapplication_WhisperBridge_newAbortFlag(JNIEnv*, jclass) {
+    return reinterpret_cast<jlong>(new std::atomic<bool>(false));
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_example_myapplication_WhisperBridge_abort(JNIEnv*, jclass, jlong flag) {
+    auto* abort_flag = reinterpret_cast<std::atomic<bool>*>(flag);
+    if (abort_flag) abort_flag->store(true, std::memory_order_relaxed);
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_example_myapplication_WhisperBridge_freeAbortFlag(JNIEnv*, jclass, jlong flag) {
+    delete reinterpret_cast<std::atomic<bool>*>(flag);
+}
+
+// ---- Tunable params: built once from WhisperParams and cached natively ----
+struct CachedParams {
+    whisper_full_params params;
+    std::string language; // owns the string params.language points to
+    bool threads_set = false;
+};
+
+static whisper_full_params default_params() {
+    whisper_full_params params = whisper_full_default_params(WHISPER_SAMPLING_GREEDY);
+    params.language = "en";
+    params.print_progress = false;
+    params.print_realtime = false;
+    params.print_timestamps = false;
+    return params;
+}
+
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_example_myapplication_WhisperBridge_createParams(
+        JNIEnv* env,
+        jclass,
+        jboolean beamSearch,
+        jint nThreads,
+        jint beamSize,
+        jint bestOf,
+        jint audioCtx,
+        jint maxTokens,
+        jboolean noContext,
+        jboolean singleSegment,
+        jfloat temperature,
+        jfloat temperatureInc,
+        jstring languageJ) {
+
+    auto* cached = new CachedParams();
+    cached->params = whisper_full_default_params(beamSearch ? WHISPER_SAMPLING_BEAM_SEARCH : WHISPER_SAMPLING_GREEDY);
+    whisper_full_params& params = cached->params;
+    params.print_progress = false;
+    params.print_realtime = false;
+    params.print_timestamps = false;
+
+    if (nThreads > 0) {
+        params.n_threads = nThreads;
+        cached->threads_set = true;
+    }
+    if (beamSize > 0) params.beam_search.beam_size = beamSize;
+    if (bestOf > 0) params.greedy.best_of = bestOf;
+    params.audio_ctx = audioCtx;      // 0 = full 1500-frame context
+    params.max_tokens = maxTokens;    // 0 = no limit
+    params.no_context = noContext;
+    params.single_segment = singleSegment;
+    params.temperature = temperature;
+    params.temperature_inc = temperatureInc; // 0 disables the fallback re-decodes
+
+    const char* language = env->GetStringUTFChars(languageJ, nullptr);
+    cached->language = language;
+    env->ReleaseStringUTFChars(languageJ, language);
+    params.language = cached->language.c_str();
+    params.detect_language = false; // "auto" still auto-detects inside whisper_full
+
+    return reinterpret_cast<jlong>(cached);
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_example_myapplication_WhisperBridge_freeParams(JNIEnv*, jclass, jlong handle) {
+    delete reinterpret_cast<CachedParams*>(handle);
+}
+
+// A copy of the cached params (0 = defaults); n_threads applies when those leave threads unset
+static whisper_full_params resolve_params(jlong params_handle, int n_threads) {
+    auto* cached = reinterpret_cast<const CachedParams*>(params_handle);
+    whisper_full_params params = cached ? cached->params : default_params();
+    if (n_threads > 0 && !(cached && cached->threads_set)) params.n_threads = n_threads;
+    return params;
+}
+
+// ---- Run timings: [sample, encode, decode, batchd, prompt ms per call, wall ms, audio ms, real-time factor] ----
+static constexpr int TIMINGS_LEN = 8;
+
+// Stage timings come from whisper_get_timings, which only covers a context's default state;
+// for pool / streaming states they are reported as -1 and only wall time and RTF are filled.
+static void write_timings(JNIEnv* env, whisper_context* ctx_default_state, float wall_ms, int n_samples,
+                          jfloatArray out) {
+    if (env->GetArrayLength(out) < TIMINGS_LEN) return;
+
+    float values[TIMINGS_LEN] = {-1.0f, -1.0f, -1.0f, -1.0f, -1.0f};
+    whisper_timings* timings = ctx_default_state ? whisper_get_timings(ctx_default_state) : nullptr;
+    if (timings) {
+        values[0] = timings->sample_ms;
+        values[1] = timings->encode_ms;
+        values[2] = timings->decode_ms;
+        values[3] = timings->batchd_ms;
+        values[4] = timings->prompt_ms;
+        whisper_free_timings(timings);
+    }
+    const float audio_ms = n_samples * 1000.0f / WHISPER_SAMPLE_RATE;
+    values[5] = wall_ms;
+    values[6] = audio_ms;
+    values[7] = audio_ms > 0.0f ? wall_ms / audio_ms : 0.0f;
+    env->SetFloatArrayRegion(out, 0, TIMINGS_LEN, values);
+}
+
+// ---- Shared transcription path: in-memory PCM -> whisper_full -> concatenated text ----
+// With a state the run uses whisper_full_with_state, so several states can share one ctx concurrently.
+// params_handle selects cached WhisperParams (0 = defaults); n_threads applies when those leave threads unset.
+// A non-null listener receives each segment as soon as it is decoded; a non-zero abort flag stops the run.
+// A non-null timings_out (length >= TIMINGS_LEN) receives the run's timings, see write_timings.
+static jstring run_full(JNIEnv* env, whisper_context* ctx, whisper_state* state, jlong params_handle, int n_threads,
+                        const float* samples, int n_samples, jobject listener, jlong abort_flag,
+                        jfloatArray timings_out) {
+    // ---- Whisper parameters (a struct copy; only the per-run callbacks are filled in below) ----
+    whisper_full_params params = resolve_params(params_handle, n_threads);
+
+    RunControl control{listener, reinterpret_cast<std::atomic<bool>*>(abort_flag)};
+    if (listener) {
+        params.new_segment_callback = on_new_segment;
+        params.new_segment_callback_user_data = &control;
+    }
+    if (listener || abort_flag) {
+        params.abort_callback = should_abort;
+        params.abort_callback_user_data = &control;
+        params.encoder_begin_callback = on_encoder_begin;
+        params.encoder_begin_callback_user_data = &control;
+    }
+
+    // ---- Run transcription ----
+    if (timings_out && !state) whisper_reset_timings(ctx); // per-run numbers instead of lifetime averages
+    const auto t_start = std::chrono::steady_clock::now();
+    int ret = state ? whisper_full_with_state(ctx, state, params, samples, n_samples)
+                    : whisper_full(ctx, params, samples, n_samples);
+    const auto t_end = std::chrono::steady_clock::now();
+    if (timings_out) {
+        float wall_ms = std::chrono::duration<float, std::milli>(t_end - t_start).count();
+        write_timings(env, state ? nullptr : ctx, wall_ms, n_samples, timings_out);
+    }
+    if (control.failed) {
+        return nullptr; // listener exception is pending and is rethrown on return to Java
+    }
+    if (control.aborted()) {
+        return env->NewStringUTF("ERROR: aborted");
+    }
+    if (ret != 0) {
+        return env->NewStringUTF("ERROR: whisper_full failed");
+    }
+
+    // ---- Collect text ----
+    std::string result;
+    int n_segments = state ? whisper_full_n_segments_from_state(state) : whisper_full_n_segments(ctx);
+    for (int i = 0; i < n_segments; ++i) {
+        result += state ? whisper_full_get_segment_text_from_state(state, i)
+                        : whisper_full_get_segment_text(ctx, i);
+    }
+
+    return env->NewStringUTF(result.c_str());
+}
+
 extern "C"
 JNIEXPORT jstring JNICALL
 Java_com_example_myapplication_WhisperBridge_transcribeWav(
@@ -55,44 +387,378 @@ Java_com_example_myapplication_WhisperBridge_transcribeWav(
 
     const char* wavPath = env->GetStringUTFChars(wavPathJ, nullptr);
 
-    // ---- Load WAV file (16-bit PCM, mono, 16kHz) ----
+    // ---- Load WAV file (mmapped, any header layout / channel count / sample rate) ----
     std::vector<float> pcmf32;
-    {
-        FILE* f = fopen(wavPath, "rb");
-        if (!f) {
-            env->ReleaseStringUTFChars(wavPathJ, wavPath);
-            return env->NewStringUTF("ERROR: cannot open WAV file");
-        }
+    std::string error;
+    bool ok = read_wav_mono16k(wavPath, pcmf32, error);
+
+    env->ReleaseStringUTFChars(wavPathJ, wavPath);
+
+    if (!ok) {
+        return env->NewStringUTF(("ERROR: " + error).c_str());
+    }
+
+    return run_full(env, ctx, nullptr, 0, 0, pcmf32.data(), (int) pcmf32.size(), nullptr, 0, nullptr);
+}
+
+// Direct FloatBuffer: whisper reads the Java-owned memory in place, no copy and no disk I/O.
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_example_myapplication_WhisperBridge_transcribeBuffer(
+        JNIEnv* env,
+        jclass,
+        jlong handle,
+        jobject pcmBuffer,
+        jint offset,
+        jint length,
+        jlong paramsHandle,
+        jobject listener,
+        jlong abortFlag,
+        jfloatArray timingsOut) {
+
+    auto* ctx = reinterpret_cast<whisper_context*>(handle);
+    if (!ctx) {
+        return env->NewStringUTF("ERROR: ctx is null");
+    }
+
+    auto* samples = static_cast<const float*>(env->GetDirectBufferAddress(pcmBuffer));
+    jlong capacity = env->GetDirectBufferCapacity(pcmBuffer); // in floats for a FloatBuffer
+    if (!samples || offset < 0 || length < 0 || offset + (jlong) length > capacity) {
+        return env->NewStringUTF("ERROR: invalid direct buffer");
+    }
+
+    return run_full(env, ctx, nullptr, paramsHandle, 0, samples + offset, length, listener, abortFlag, timingsOut);
+}
+
+// float[]: GetFloatArrayElements pins large arrays on ART instead of copying them.
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_example_myapplication_WhisperBridge_transcribeArray(
+        JNIEnv* env,
+        jclass,
+        jlong handle,
+        jfloatArray pcmArray,
+        jint offset,
+        jint length,
+        jlong paramsHandle,
+        jobject listener,
+        jlong abortFlag,
+        jfloatArray timingsOut) {
+
+    auto* ctx = reinterpret_cast<whisper_context*>(handle);
+    if (!ctx) {
+        return env->NewStringUTF("ERROR: ctx is null");
+    }
 
-        fseek(f, 44, SEEK_SET); // skip WAV header
-        int16_t sample;
-        while (fread(&sample, sizeof(int16_t), 1, f) == 1) {
-            pcmf32.push_back(sample / 32768.0f);
+    if (offset < 0 || length < 0 || offset + (jlong) length > env->GetArrayLength(pcmArray)) {
+        return env->NewStringUTF("ERROR: invalid array range");
+    }
+
+    jfloat* samples = env->GetFloatArrayElements(pcmArray, nullptr);
+    jstring result = run_full(env, ctx, nullptr, paramsHandle, 0, samples + offset, length, listener, abortFlag, timingsOut);
+    env->ReleaseFloatArrayElements(pcmArray, samples, JNI_ABORT); // read-only, nothing to copy back
+    return result;
+}
+
+// ---- State pool: one set of model weights, N independent decoder states ----
+struct WhisperPool {
+    whisper_context* ctx = nullptr;
+    std::vector<whisper_state*> states;
+};
+
+static void free_pool(WhisperPool* pool) {
+    for (whisper_state* state : pool->states) whisper_free_state(state);
+    if (pool->ctx) whisper_free(pool->ctx);
+    delete pool;
+}
+
+// Takes ownership of a no-state ctx and adds n_states states to it; returns 0 (and frees) on failure.
+static jlong make_pool(whisper_context* ctx, int n_states) {
+    if (!ctx) {
+        LOGE("Failed to init whisper context (no state)");
+        return 0;
+    }
+
+    auto* pool = new WhisperPool();
+    pool->ctx = ctx;
+    for (int i = 0; i < n_states; ++i) {
+        whisper_state* state = whisper_init_state(pool->ctx);
+        if (!state) {
+            LOGE("Failed to init whisper state %d", i);
+            free_pool(pool);
+            return 0;
         }
-        fclose(f);
+        pool->states.push_back(state);
     }
 
-    env->ReleaseStringUTFChars(wavPathJ, wavPath);
+    LOGI("Whisper pool OK: %d states", n_states);
+    return reinterpret_cast<jlong>(pool);
+}
 
-    // ---- Whisper parameters ----
-    whisper_full_params params = whisper_full_default_params(WHISPER_SAMPLING_GREEDY);
-    params.language = "en";
-    params.print_progress = false;
-    params.print_realtime = false;
-    params.print_timestamps = false;
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_example_myapplication_WhisperBridge_initPool(JNIEnv* env, jclass, jstring modelPathJ, jint nStates) {
+    const char* modelPath = env->GetStringUTFChars(modelPathJ, nullptr);
+
+    whisper_context_params params = whisper_context_default_params();
+    params.use_gpu = false;
+
+    whisper_context* ctx = whisper_init_from_file_with_params_no_state(modelPath, params);
+
+    env->ReleaseStringUTFChars(modelPathJ, modelPath);
+
+    return make_pool(ctx, nStates);
+}
+
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_example_myapplication_WhisperBridge_initPoolFromAsset(JNIEnv* env, jclass, jobject assetManager, jstring assetName,
+                                                               jint nStates) {
+    return make_pool(init_from_asset(env, assetManager, assetName, true), nStates);
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_example_myapplication_WhisperBridge_freePool(JNIEnv*, jclass, jlong handle) {
+    auto* pool = reinterpret_cast<WhisperPool*>(handle);
+    if (pool) free_pool(pool);
+}
+
+static whisper_state* pool_state(jlong handle, jint index) {
+    auto* pool = reinterpret_cast<WhisperPool*>(handle);
+    if (!pool || index < 0 || index >= (jint) pool->states.size()) return nullptr;
+    return pool->states[index];
+}
+
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_example_myapplication_WhisperBridge_transcribePoolBuffer(
+        JNIEnv* env,
+        jclass,
+        jlong handle,
+        jint stateIndex,
+        jint nThreads,
+        jobject pcmBuffer,
+        jint offset,
+        jint length,
+        jlong paramsHandle,
+        jobject listener,
+        jlong abortFlag,
+        jfloatArray timingsOut) {
+
+    whisper_state* state = pool_state(handle, stateIndex);
+    if (!state) {
+        return env->NewStringUTF("ERROR: invalid pool state");
+    }
+
+    auto* samples = static_cast<const float*>(env->GetDirectBufferAddress(pcmBuffer));
+    jlong capacity = env->GetDirectBufferCapacity(pcmBuffer);
+    if (!samples || offset < 0 || length < 0 || offset + (jlong) length > capacity) {
+        return env->NewStringUTF("ERROR: invalid direct buffer");
+    }
+
+    auto* pool = reinterpret_cast<WhisperPool*>(handle);
+    return run_full(env, pool->ctx, state, paramsHandle, nThreads, samples + offset, length, listener, abortFlag, timingsOut);
+}
+
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_example_myapplication_WhisperBridge_transcribePool(
+        JNIEnv* env,
+        jclass,
+        jlong handle,
+        jint stateIndex,
+        jint nThreads,
+        jfloatArray pcmArray,
+        jint offset,
+        jint length,
+        jlong paramsHandle,
+        jobject listener,
+        jlong abortFlag,
+        jfloatArray timingsOut) {
+
+    whisper_state* state = pool_state(handle, stateIndex);
+    if (!state) {
+        return env->NewStringUTF("ERROR: invalid pool state");
+    }
+
+    if (offset < 0 || length < 0 || offset + (jlong) length > env->GetArrayLength(pcmArray)) {
+        return env->NewStringUTF("ERROR: invalid array range");
+    }
+
+    auto* pool = reinterpret_cast<WhisperPool*>(handle);
+    jfloat* samples = env->GetFloatArrayElements(pcmArray, nullptr);
+    jstring result = run_full(env, pool->ctx, state, paramsHandle, nThreads, samples + offset, length, listener, abortFlag, timingsOut);
+    env->ReleaseFloatArrayElements(pcmArray, samples, JNI_ABORT);
+    return result;
+}
+
+// ---- Live streaming session (see StreamingTranscriber): own state on a shared ctx + prompt carry-over ----
+struct StreamSession {
+    whisper_context* ctx = nullptr; // borrowed from WhisperBridge.init
+    whisper_state* state = nullptr;
+    std::vector<whisper_token> prompt; // text tokens of the last committed window
+};
+
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_example_myapplication_WhisperBridge_streamOpen(JNIEnv*, jclass, jlong handle) {
+    auto* ctx = reinterpret_cast<whisper_context*>(handle);
+    if (!ctx) return 0;
+
+    whisper_state* state = whisper_init_state(ctx);
+    if (!state) {
+        LOGE("Failed to init streaming state");
+        return 0;
+    }
+
+    auto* session = new StreamSession();
+    session->ctx = ctx;
+    session->state = state;
+    return reinterpret_cast<jlong>(session);
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_example_myapplication_WhisperBridge_streamClose(JNIEnv*, jclass, jlong handle) {
+    auto* session = reinterpret_cast<StreamSession*>(handle);
+    if (!session) return;
+    whisper_free_state(session->state);
+    delete session;
+}
+
+// Decodes one sliding window as a single segment, prompted with the previous committed window's tokens.
+// With commit set, this window's tokens become the prompt for the following windows.
+// paramsHandle selects cached WhisperParams (0 = defaults without temperature fallback); the sliding-window
+// settings (single segment, context through the prompt) always override them.
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_example_myapplication_WhisperBridge_streamStep(
+        JNIEnv* env,
+        jclass,
+        jlong handle,
+        jfloatArray windowArray,
+        jint length,
+        jlong paramsHandle,
+        jint nThreads,
+        jboolean commit) {
+
+    auto* session = reinterpret_cast<StreamSession*>(handle);
+    if (!session) {
+        return env->NewStringUTF("ERROR: stream session is null");
+    }
+    if (length < 0 || length > env->GetArrayLength(windowArray)) {
+        return env->NewStringUTF("ERROR: invalid array range");
+    }
+
+    whisper_full_params params = resolve_params(paramsHandle, nThreads);
+    if (!paramsHandle) {
+        params.temperature_inc = 0.0f; // no fallback re-decodes: bounded latency matters more here
+    }
+    params.print_special = false;
+    params.single_segment = true;   // one hypothesis per window, as in examples/stream
+    params.no_context = true;       // context comes from prompt_tokens, not the state's history
+    params.prompt_tokens = session->prompt.empty() ? nullptr : session->prompt.data();
+    params.prompt_n_tokens = (int) session->prompt.size();
+
+    jfloat* samples = env->GetFloatArrayElements(windowArray, nullptr);
+    int ret = whisper_full_with_state(session->ctx, session->state, params, samples, length);
+    env->ReleaseFloatArrayElements(windowArray, samples, JNI_ABORT);
 
-    // ---- Run transcription ----
-    int ret = whisper_full(ctx, params, pcmf32.data(), pcmf32.size());
     if (ret != 0) {
         return env->NewStringUTF("ERROR: whisper_full failed");
     }
 
-    // ---- Collect text ----
     std::string result;
-    int n_segments = whisper_full_n_segments(ctx);
+    const whisper_token eot = whisper_token_eot(session->ctx);
+    if (commit) session->prompt.clear();
+
+    const int n_segments = whisper_full_n_segments_from_state(session->state);
     for (int i = 0; i < n_segments; ++i) {
-        result += whisper_full_get_segment_text(ctx, i);
+        result += whisper_full_get_segment_text_from_state(session->state, i);
+        if (!commit) continue;
+        const int n_tokens = whisper_full_n_tokens_from_state(session->state, i);
+        for (int j = 0; j < n_tokens; ++j) {
+            whisper_token id = whisper_full_get_token_id_from_state(session->state, i, j);
+            if (id < eot) session->prompt.push_back(id); // text tokens only
+        }
     }
 
     return env->NewStringUTF(result.c_str());
 }
+
+// ---- Bulk result export: every segment and token of the last run in one crossing ----
+template <typename T, typename Array, typename New, typename Set>
+static Array to_java(JNIEnv* env, const std::vector<T>& v, New make, Set set) {
+    Array array = (env->*make)((jsize) v.size());
+    if (array && !v.empty()) (env->*set)(array, 0, (jsize) v.size(), v.data());
+    return array;
+}
+
+// Reads the results of the last run on `state` (or on ctx's default state when null) into a
+// TranscriptionResult: primitive arrays for times / token data and one UTF-8 blob plus offsets for text.
+static jobject export_result(JNIEnv* env, whisper_context* ctx, whisper_state* state) {
+    const int n_segments = state ? whisper_full_n_segments_from_state(state) : whisper_full_n_segments(ctx);
+
+    std::vector<jlong> seg_t0(n_segments), seg_t1(n_segments);
+    std::vector<jint> text_offsets(n_segments + 1), token_offsets(n_segments + 1);
+    std::vector<jbyte> text;
+    std::vector<jint> token_ids;
+    std::vector<jfloat> token_p;
+    std::vector<jlong> token_t0, token_t1;
+
+    for (int i = 0; i < n_segments; ++i) {
+        // whisper timestamps are in 10 ms units
+        seg_t0[i] = (state ? whisper_full_get_segment_t0_from_state(state, i) : whisper_full_get_segment_t0(ctx, i)) * 10;
+        seg_t1[i] = (state ? whisper_full_get_segment_t1_from_state(state, i) : whisper_full_get_segment_t1(ctx, i)) * 10;
+
+        const char* seg_text = state ? whisper_full_get_segment_text_from_state(state, i)
+                                     : whisper_full_get_segment_text(ctx, i);
+        text_offsets[i] = (jint) text.size();
+        text.insert(text.end(), seg_text, seg_text + std::strlen(seg_text));
+
+        token_offsets[i] = (jint) token_ids.size();
+        const int n_tokens = state ? whisper_full_n_tokens_from_state(state, i) : whisper_full_n_tokens(ctx, i);
+        for (int j = 0; j < n_tokens; ++j) {
+            whisper_token_data data = state ? whisper_full_get_token_data_from_state(state, i, j)
+                                             : whisper_full_get_token_data(ctx, i, j);
+            token_ids.push_back(data.id);
+            token_p.push_back(data.p);
+            token_t0.push_back(data.t0 * 10);
+            token_t1.push_back(data.t1 * 10);
+        }
+    }
+    text_offsets[n_segments] = (jint) text.size();
+    token_offsets[n_segments] = (jint) token_ids.size();
+
+    jlongArray jseg_t0 = to_java<jlong, jlongArray>(env, seg_t0, &JNIEnv::NewLongArray, &JNIEnv::SetLongArrayRegion);
+    jlongArray jseg_t1 = to_java<jlong, jlongArray>(env, seg_t1, &JNIEnv::NewLongArray, &JNIEnv::SetLongArrayRegion);
+    jintArray jtext_offsets = to_java<jint, jintArray>(env, text_offsets, &JNIEnv::NewIntArray, &JNIEnv::SetIntArrayRegion);
+    jbyteArray jtext = to_java<jbyte, jbyteArray>(env, text, &JNIEnv::NewByteArray, &JNIEnv::SetByteArrayRegion);
+    jintArray jtoken_offsets = to_java<jint, jintArray>(env, token_offsets, &JNIEnv::NewIntArray, &JNIEnv::SetIntArrayRegion);
+    jintArray jtoken_ids = to_java<jint, jintArray>(env, token_ids, &JNIEnv::NewIntArray, &JNIEnv::SetIntArrayRegion);
+    jfloatArray jtoken_p = to_java<jfloat, jfloatArray>(env, token_p, &JNIEnv::NewFloatArray, &JNIEnv::SetFloatArrayRegion);
+    jlongArray jtoken_t0 = to_java<jlong, jlongArray>(env, token_t0, &JNIEnv::NewLongArray, &JNIEnv::SetLongArrayRegion);
+    jlongArray jtoken_t1 = to_java<jlong, jlongArray>(env, token_t1, &JNIEnv::NewLongArray, &JNIEnv::SetLongArrayRegion);
+    if (env->ExceptionCheck()) {
+        return nullptr; // OutOfMemoryError from one of the allocations
+    }
+
+    return env->NewObject(g_resultClass, g_resultInit, jseg_t0, jseg_t1, jtext_offsets, jtext,
+                          jtoken_offsets, jtoken_ids, jtoken_p, jtoken_t0, jtoken_t1);
+}
+
+extern "C"
+JNIEXPORT jobject JNICALL
+Java_com_example_myapplication_WhisperBridge_exportResult(JNIEnv* env, jclass, jlong handle) {
+    auto* ctx = reinterpret_cast<whisper_context*>(handle);
+    return ctx ? export_result(env, ctx, nullptr) : nullptr;
+}
+
+extern "C"
+JNIEXPORT jobject JNICALL
+Java_com_example_myapplication_WhisperBridge_exportPoolResult(JNIEnv* env, jclass, jlong handle, jint stateIndex) {
+    whisper_state* state = pool_state(handle, stateIndex);
+    if (!state) return nullptr;
+    return export_result(env, reinterpret_cast<WhisperPool*>(handle)->ctx, state);
+}
@@ -0,0 +1,188 @@
+#include "wav_reader.h"
+
+#include <cstdint>
+#include <cstring>
+#include <fcntl.h>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <unistd.h>
+
+namespace {
+
+constexpr int kTargetRate = 16000;
+
+constexpr uint16_t kFormatPcm = 0x0001;
+constexpr uint16_t kFormatFloat = 0x0003;
+constexpr uint16_t kFormatExtensible = 0xFFFE;
+
+// Little-endian reads that are safe at any (possibly odd) offset inside the mapping
+inline uint16_t rd16(const uint8_t* p) { return (uint16_t) (p[0] | (p[1] << 8)); }
+inline uint32_t rd32(const uint8_t* p) { return rd16(p) | ((uint32_t) rd16(p + 2) << 16); }
+
+inline int16_t load_i16(const uint8_t* p) { int16_t v; std::memcpy(&v, p, sizeof(v)); return v; }
+inline float load_f32(const uint8_t* p) { float v; std::memcpy(&v, p, sizeof(v)); return v; }
+
+// Read-only mapping released on scope exit
+struct MappedFile {
+    const uint8_t* data = nullptr;
+    size_t size = 0;
+
+    ~MappedFile() {
+        if (data) munmap((void*) data, size);
+    }
+
+    bool open(const char* path) {
+        int fd = ::open(path, O_RDONLY | O_CLOEXEC);
+        if (fd < 0) return false;
+        struct stat st{};
+        if (fstat(fd, &st) != 0 || st.st_size <= 0) {
+            close(fd);
+            return false;
+        }
+        void* p = mmap(nullptr, (size_t) st.st_size, PROT_READ, MAP_PRIVATE, fd, 0);
+        close(fd); // the mapping keeps the file alive
+        if (p == MAP_FAILED) return false;
+        madvise(p, (size_t) st.st_size, MADV_SEQUENTIAL);
+        data = static_cast<const uint8_t*>(p);
+        size = (size_t) st.st_size;
+        return true;
+    }
+};
+
+struct Format {
+    uint16_t tag = 0;
+    uint16_t channels = 0;
+    uint32_t rate = 0;
+    uint16_t block_align = 0;
+    uint16_t bits = 0;
+};
+
+// One pass over the interleaved frames: convert and average channels straight into `dst`
+template <typename Load>
+void downmix(const uint8_t* src, size_t frames, const Format& fmt, float scale, Load load, float* dst) {
+    const int channels = fmt.channels;
+    const int stride = fmt.block_align;
+    const int sample_bytes = fmt.bits / 8;
+    const float gain = scale / (float) channels;
+    if (channels == 1) {
+        for (size_t i = 0; i < frames; ++i) dst[i] = load(src + i * stride) * scale;
+        return;
+    }
+    for (size_t i = 0; i < frames; ++i) {
+        const uint8_t* frame = src + i * stride;
+        float acc = 0.0f;
+        for (int c = 0; c < channels; ++c) acc += load(frame + c * sample_bytes);
+        dst[i] = acc * gain;
+    }
+}
+
+// Linear interpolation to 16 kHz; good enough for speech, which whisper band-limits anyway
+void resample_linear(const std::vector<float>& in, uint32_t rate, std::vector<float>& out) {
+    if (in.empty()) {
+        out.clear();
+        return;
+    }
+    const size_t n_out = (size_t) ((uint64_t) in.size() * kTargetRate / rate);
+    out.resize(n_out);
+    const double step = (double) rate / kTargetRate;
+    const size_t last = in.size() - 1;
+    for (size_t i = 0; i < n_out; ++i) {
+        double pos = i * step;
+        size_t j = (size_t) pos;
+        if (j >= last) {
+            out[i] = in[last];
+            continue;
+        }
+        float frac = (float) (pos - (double) j);
+        out[i] = in[j] + (in[j + 1] - in[j]) * frac;
+    }
+}
+
+} // namespace
+
+bool read_wav_mono16k(const char* path, std::vector<float>& out, std::string& error) {
+    MappedFile file;
+    if (!file.open(path)) {
+        error = "cannot open WAV file";
+        return false;
+    }
+
+    const uint8_t* p = file.data;
+    const size_t size = file.size;
+    if (size < 12 || std::memcmp(p, "RIFF", 4) != 0 || std::memcmp(p + 8, "WAVE", 4) != 0) {
+        error = "not a RIFF/WAVE file";
+        return false;
+    }
+
+    // ---- Walk the chunks ----
+    Format fmt;
+    bool have_fmt = false;
+    const uint8_t* samples = nullptr;
+    size_t data_bytes = 0;
+
+    size_t pos = 12;
+    while (pos + 8 <= size) {
+        const uint8_t* chunk = p + pos;
+        const uint32_t chunk_size = rd32(chunk + 4);
+        const size_t body = pos + 8;
+        const size_t available = size - body;
+
+        if (std::memcmp(chunk, "fmt ", 4) == 0 && chunk_size >= 16 && available >= 16) {
+            const uint8_t* f = p + body;
+            fmt.tag = rd16(f);
+            fmt.channels = rd16(f + 2);
+            fmt.rate = rd32(f + 4);
+            fmt.block_align = rd16(f + 12);
+            fmt.bits = rd16(f + 14);
+            // WAVE_FORMAT_EXTENSIBLE: the real format is the first two bytes of the SubFormat GUID
+            if (fmt.tag == kFormatExtensible && chunk_size >= 40 && available >= 40) {
+                fmt.tag = rd16(f + 24);
+            }
+            have_fmt = true;
+        } else if (std::memcmp(chunk, "data", 4) == 0) {
+            samples = p + body;
+            // Streaming writers leave 0 / 0xFFFFFFFF here; trust the file length instead
+            data_bytes = (chunk_size == 0 || chunk_size > available) ? available : chunk_size;
+            break;
+        }
+        // "LIST", "fact", "bext", ... are skipped; chunks are word aligned
+        pos = body + chunk_size + (chunk_size & 1);
+    }
+
+    if (!have_fmt) {
+        error = "WAV has no fmt chunk";
+        return false;
+    }
+    if (!samples) {
+        error = "WAV has no data chunk";
+        return false;
+    }
+    if (fmt.channels == 0 || fmt.rate == 0 || fmt.block_align < fmt.channels * (fmt.bits / 8)) {
+        error = "invalid WAV format";
+        return false;
+    }
+
+    const bool pcm16 = fmt.tag == kFormatPcm && fmt.bits == 16;
+    const bool f32 = fmt.tag == kFormatFloat && fmt.bits == 32;
+    if (!pcm16 && !f32) {
+        error = "unsupported WAV encoding (need 16-bit PCM or 32-bit float)";
+        return false;
+    }
+
+    // ---- Convert in a single pass into an exactly sized buffer ----
+    const size_t frames = data_bytes / fmt.block_align;
+    std::vector<float> mono;
+    std::vector<float>& dst = fmt.rate == kTargetRate ? out : mono;
+    dst.resize(frames);
+
+    if (pcm16) {
+        downmix(samples, frames, fmt, 1.0f / 32768.0f, [](const uint8_t* s) { return (float) load_i16(s); }, dst.data());
+    } else {
+        downmix(samples, frames, fmt, 1.0f, load_f32, dst.data());
+    }
+
+    if (fmt.rate != kTargetRate) {
+        resample_linear(mono, fmt.rate, out);
+    }
+    return true;
+}
@@ -0,0 +1,11 @@
+#pragma once
+
+#include <string>
+#include <vector>
+
+// Loads a RIFF/WAVE file as 16 kHz mono float PCM in [-1, 1], the format whisper_full expects.
+// The file is memory-mapped and its chunks are walked ("fmt ", "LIST", "data", ...), so headers that
+// are not exactly 44 bytes are handled. Supports 16-bit integer and 32-bit float samples (plain or
+// WAVE_FORMAT_EXTENSIBLE), any channel count (averaged to mono) and any sample rate (linear resampling).
+// On failure returns false and fills `error`.
+bool read_wav_mono16k(const char* path, std::vector<float>& out, std::string& error);
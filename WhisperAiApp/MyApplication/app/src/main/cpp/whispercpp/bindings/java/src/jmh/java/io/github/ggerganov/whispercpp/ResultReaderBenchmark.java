@@ -0,0 +1,109 @@
+package io.github.ggerganov.whispercpp;
+
+import com.sun.jna.Pointer;
+import io.github.ggerganov.whispercpp.params.CBool;
+import io.github.ggerganov.whispercpp.params.WhisperContextParams;
+import io.github.ggerganov.whispercpp.params.WhisperFullParams;
+import io.github.ggerganov.whispercpp.params.WhisperSamplingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the result accessors through the JNA interface proxy vs direct mapping.
+ * Transcribes samples/jfk.wav once, then reads its tokens back.
+ *
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultReaderBenchmark {
+
+    @Param({"jna", "direct"})
+    public String binding;
+
+    @Param({"../../models/ggml-tiny.en.bin"})
+    public String modelPath;
+
+    private final WhisperCppJnaLibrary lib = WhisperCppJnaLibrary.instance;
+    private WhisperResultReader results;
+    private Pointer ctx;
+
+    @Setup
+    public void setup() throws Exception {
+        results = "direct".equals(binding) ? WhisperCppDirect.instance : WhisperCppJnaLibrary.instance;
+
+        Pointer contextParamsPointer = lib.whisper_context_default_params_by_ref();
+        WhisperContextParams.ByValue contextParams = new WhisperContextParams.ByValue(contextParamsPointer);
+        contextParams.read();
+        ctx = lib.whisper_init_from_file_with_params(new File(modelPath).getAbsolutePath(), contextParams);
+        lib.whisper_free_context_params(contextParamsPointer);
+        if (ctx == null) {
+            throw new IllegalStateException("Model " + modelPath + " not found");
+        }
+
+        Pointer paramsPointer = lib.whisper_full_default_params_by_ref(WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY.ordinal());
+        try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(new File("../../samples/jfk.wav"))) {
+            byte[] b = new byte[audioInputStream.available()];
+            float[] floats = new float[b.length / 2];
+            audioInputStream.read(b);
+            for (int i = 0, j = 0; i < b.length; i += 2, j++) {
+                int intSample = (int) (b[i + 1]) << 8 | (int) (b[i]) & 0xFF;
+                floats[j] = intSample / 32767.0f;
+            }
+
+            WhisperFullParams.ByValue params = new WhisperFullParams.ByValue(paramsPointer);
+            params.read();
+            params.print_progress = CBool.FALSE;
+            if (lib.whisper_full(ctx, params, floats, floats.length) != 0) {
+                throw new IllegalStateException("Failed to process audio");
+            }
+        } finally {
+            lib.whisper_free_params(paramsPointer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        lib.whisper_free(ctx);
+    }
+
+    /** A single primitive call: the per-call binding overhead. */
+    @Benchmark
+    public float tokenProbability() {
+        return results.whisper_full_get_token_p(ctx, 0, 0);
+    }
+
+    /** Reads id and probability of every token, as a result exporter would. */
+    @Benchmark
+    public double readAllTokens() {
+        double sum = 0;
+        int nSegments = results.whisper_full_n_segments(ctx);
+        for (int i = 0; i < nSegments; i++) {
+            sum += results.whisper_full_get_segment_t0(ctx, i) + results.whisper_full_get_segment_t1(ctx, i);
+            int nTokens = results.whisper_full_n_tokens(ctx, i);
+            for (int j = 0; j < nTokens; j++) {
+                sum += results.whisper_full_get_token_id(ctx, i, j) + results.whisper_full_get_token_p(ctx, i, j);
+            }
+        }
+        return sum;
+    }
+}
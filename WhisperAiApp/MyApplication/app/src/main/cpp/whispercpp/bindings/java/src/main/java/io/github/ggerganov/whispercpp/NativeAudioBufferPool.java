@@ -0,0 +1,164 @@
+package io.github.ggerganov.whispercpp;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Recycles off-heap sample buffers, so audio can be decoded straight into native memory and handed to
+ * `whisper_full()` without JNA copying a `float[]` to and from the native heap on every call.
+ *
+ * <pre>
+ * try (NativeAudioBufferPool.Buffer audio = pool.acquire(nSamples)) {
+ *     audio.readPcm16(inputStream);
+ *     String text = whisper.fullTranscribe(params, audio.samples());
+ * }
+ * </pre>
+ *
+ * Thread safe. Buffers are returned to the pool by {@link Buffer#close()} and must not be used afterwards.
+ */
+public class NativeAudioBufferPool implements AutoCloseable {
+    // Capacities are rounded up to whole seconds so clips of similar length share blocks
+    private static final int GRANULARITY = WhisperConstants.WHISPER_SAMPLE_RATE;
+
+    private final int maxPooled;
+    private final ArrayDeque<Memory> free = new ArrayDeque<>();
+    private boolean closed;
+
+    /**
+     * @param maxPooled - how many idle blocks to keep; blocks returned beyond that are freed immediately
+     */
+    public NativeAudioBufferPool(int maxPooled) {
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("maxPooled must be >= 0");
+        }
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * A buffer of exactly nSamples floats (contents undefined), reusing the smallest idle block that is large enough.
+     */
+    public Buffer acquire(int nSamples) {
+        if (nSamples <= 0) {
+            throw new IllegalArgumentException("nSamples must be > 0");
+        }
+        long bytes = (long) nSamples * Float.BYTES;
+        Memory memory = take(bytes);
+        if (memory == null) {
+            long capacity = ((nSamples + GRANULARITY - 1L) / GRANULARITY) * GRANULARITY;
+            memory = new Memory(capacity * Float.BYTES);
+        }
+        return new Buffer(memory, nSamples);
+    }
+
+    private synchronized Memory take(long bytes) {
+        Memory best = null;
+        for (Memory memory : free) {
+            if (memory.size() >= bytes && (best == null || memory.size() < best.size())) {
+                best = memory;
+            }
+        }
+        if (best != null) {
+            free.remove(best);
+        }
+        return best;
+    }
+
+    private void release(Memory memory) {
+        synchronized (this) {
+            if (!closed && free.size() < maxPooled) {
+                free.push(memory);
+                return;
+            }
+        }
+        memory.close();
+    }
+
+    /** Frees the idle blocks; buffers still in use are freed when they are closed. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            for (Iterator<Memory> it = free.iterator(); it.hasNext(); ) {
+                it.next().close();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * nSamples floats of native memory leased from the pool.
+     */
+    public final class Buffer implements AutoCloseable {
+        private final Memory memory;
+        private final int size;
+        private final FloatBuffer samples;
+        private boolean released;
+
+        private Buffer(Memory memory, int size) {
+            this.memory = memory;
+            this.size = size;
+            this.samples = memory.getByteBuffer(0, (long) size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+
+        /** Native address of the first sample, for `whisper_full(ctx, params, pointer(), size())`. */
+        public Pointer pointer() {
+            return memory;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Direct view over the samples; its position and limit select what is transcribed. */
+        public FloatBuffer samples() {
+            return samples;
+        }
+
+        /**
+         * Decodes little-endian 16-bit mono PCM (eg: the data chunk of a 16 kHz WAV file) into the buffer until it is
+         * full or the stream ends, and sets the sample view's position to 0 and its limit to the samples read.
+         *
+         * @return the number of samples read
+         */
+        public int readPcm16(InputStream in) throws IOException {
+            byte[] chunk = new byte[8192];
+            int n = 0;
+            int pending = 0;
+            while (n < size) {
+                int want = Math.min(chunk.length - pending, (size - n) * 2 - pending);
+                int read = in.read(chunk, pending, want);
+                if (read < 0) {
+                    break;
+                }
+                int available = pending + read;
+                int whole = available & ~1;
+                for (int i = 0; i < whole; i += 2) {
+                    samples.put(n++, (short) ((chunk[i] & 0xff) | (chunk[i + 1] << 8)) / 32768.0f);
+                }
+                pending = available - whole;
+                if (pending != 0) {
+                    chunk[0] = chunk[whole];
+                }
+            }
+            samples.clear();
+            samples.limit(n);
+            return n;
+        }
+
+        /** Returns the memory to the pool. */
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(memory);
+            }
+        }
+    }
+}
@@ -21,4 +21,7 @@ public class WhisperConstants {
     public static final int WHISPER_AHEADS_CUSTOM = 13;
     public static final int WHISPER_AHEADS_N_TOP_MOST = 14;
     public static final int WHISPER_AHEADS_COUNT = 15;
+
+    // Audio: whisper_full() expects mono float PCM at this rate (WHISPER_SAMPLE_RATE in whisper.h)
+    public static final int WHISPER_SAMPLE_RATE = 16000;
 }
@@ -2,28 +2,77 @@ package io.github.ggerganov.whispercpp;
 
 import com.sun.jna.Native;
 import com.sun.jna.Pointer;
+import io.github.ggerganov.whispercpp.bean.TranscriptionStats;
 import io.github.ggerganov.whispercpp.bean.WhisperSegment;
+import io.github.ggerganov.whispercpp.callbacks.GgmlAbortCallback;
+import io.github.ggerganov.whispercpp.callbacks.WhisperNewSegmentCallback;
+import io.github.ggerganov.whispercpp.model.WhisperModelLoader;
+import io.github.ggerganov.whispercpp.model.WhisperTimings;
+import io.github.ggerganov.whispercpp.params.SizeT;
 import io.github.ggerganov.whispercpp.params.WhisperContextParams;
 import io.github.ggerganov.whispercpp.params.WhisperFullParams;
+import io.github.ggerganov.whispercpp.params.WhisperParamsTemplate;
 import io.github.ggerganov.whispercpp.params.WhisperSamplingStrategy;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
 
 /**
  * Before calling most methods, you must call `initContext(modelPath)` to initialise the `ctx` Pointer.
  */
 public class WhisperCpp implements AutoCloseable {
-    private WhisperCppJnaLibrary lib = WhisperCppJnaLibrary.instance;
+    private WhisperCppJnaLibrary lib;
     private Pointer ctx = null;
     private Pointer paramsPointer = null;
     private Pointer greedyParamsPointer = null;
     private Pointer beamParamsPointer = null;
+    private long lastRunNanos = 0;
+    private WhisperResultReader results;
+    private WhisperSegmentSink segmentSink = WhisperSegmentSink.NONE;
+    private WhisperPromptCache promptCache = null;
+    // Keeps the JNA callback strongly reachable while whisper_full may call it
+    private SegmentForwarder activeForwarder = null;
+    private GgmlAbortCallback activeAbort = null;
+    private MappedByteBuffer loadingModel = null;
+    private int lastRunSamples = 0;
+    // Set while whisper_full runs on ctx, which holds a single default state
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public WhisperCpp() {
+        this(WhisperCppJnaLibrary.instance, WhisperResultReader.defaultReader(), null);
+    }
+
+    /** For tests: a context already loaded through the given bindings. */
+    WhisperCpp(WhisperCppJnaLibrary lib, WhisperResultReader results, Pointer ctx) {
+        this.lib = lib;
+        this.results = results;
+        this.ctx = ctx;
+    }
 
     public File modelDir() {
+        return defaultModelDir();
+    }
+
+    /** Where model names (as opposed to paths) are looked up: `$XDG_CACHE_HOME/whisper` or `~/.cache/whisper`. */
+    static File defaultModelDir() {
         String modelDirPath = System.getenv("XDG_CACHE_HOME");
         if (modelDirPath == null) {
             modelDirPath = System.getProperty("user.home") + "/.cache";
@@ -52,19 +101,110 @@ public class WhisperCpp implements AutoCloseable {
             lib.whisper_free(ctx);
         }
 
+        modelPath = resolveModelPath(modelDir(), modelPath);
+
+        ctx = lib.whisper_init_from_file_with_params(modelPath, params);
+
+        if (ctx == null) {
+            throw new FileNotFoundException(modelPath);
+        }
+    }
+
+    /**
+     * Loads the model through a loader, eg: {@link WhisperModelLoader#fromInputStream} for a model inside a jar,
+     * or {@link WhisperModelLoader#fromMappedFile}. The loader's source is closed when this returns.
+     *
+     * @throws IOException the loader's read error, or if whisper could not load the model
+     */
+    public void initContext(WhisperModelLoader loader, WhisperContextParams.ByValue params) throws IOException {
+        if (ctx != null) {
+            lib.whisper_free(ctx);
+        }
+
+        ctx = lib.whisper_init_with_params(loader, params);
+
+        if (ctx == null) {
+            IOException failure = loader.getFailure();
+            throw failure != null ? failure : new IOException("Failed to load model");
+        }
+    }
+
+    /**
+     * Maps the model file read-only and hands the mapping to `whisper_init_from_buffer_with_params()`, so loading
+     * costs page faults on the (shared) page cache instead of reads into a private copy of the file.
+     * The mapping is only needed while the weights are loaded and is released with the buffer afterwards.
+     * Files over 2 GiB, which one MappedByteBuffer cannot span, are streamed from 1 GiB mapped windows instead.
+     */
+    public void initContextFromMappedFile(Path modelFile) throws IOException {
+        initContextFromMappedFile(modelFile, getContextDefaultParams());
+    }
+
+    /**
+     * @param modelFile - path of the ggml model file
+     * @param params - params to use when initialising the context
+     */
+    public void initContextFromMappedFile(Path modelFile, WhisperContextParams.ByValue params) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(modelFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                initContext(WhisperModelLoader.fromMappedFile(modelFile), params);
+                return;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (ctx != null) {
+            lib.whisper_free(ctx);
+        }
+
+        // The field keeps the mapping reachable until whisper has copied the weights out of it
+        loadingModel = mapped;
+        try {
+            ctx = lib.whisper_init_from_buffer_with_params(Native.getDirectBufferPointer(mapped),
+                    new SizeT(mapped.capacity()), params);
+        } finally {
+            loadingModel = null;
+        }
+
+        if (ctx == null) {
+            throw new IOException("Failed to load model from " + modelFile);
+        }
+    }
+
+    /** Maps a bare model name (eg: "base-en") to "ggml-base.en.bin" in modelDir; paths are returned unchanged. */
+    static String resolveModelPath(File modelDir, String modelPath) {
         if (!modelPath.contains("/") && !modelPath.contains("\\")) {
             if (!modelPath.endsWith(".bin")) {
                 modelPath = "ggml-" + modelPath.replace("-", ".") + ".bin";
             }
 
-            modelPath = new File(modelDir(), modelPath).getAbsolutePath();
+            modelPath = new File(modelDir, modelPath).getAbsolutePath();
         }
+        return modelPath;
+    }
 
-        ctx = lib.whisper_init_from_file_with_params(modelPath, params);
+    /**
+     * Receives every segment of the following transcriptions as it is generated (null or
+     * {@link WhisperSegmentSink#NONE} to stop). Nothing is printed by default.
+     */
+    public void setSegmentSink(WhisperSegmentSink segmentSink) {
+        this.segmentSink = segmentSink == null ? WhisperSegmentSink.NONE : segmentSink;
+    }
 
-        if (ctx == null) {
-            throw new FileNotFoundException(modelPath);
-        }
+    /**
+     * Tokenizes each distinct `initial_prompt` once and passes the cached tokens as `prompt_tokens` on the
+     * following transcriptions (null to stop). Params that already set `prompt_tokens` are left alone.
+     */
+    public void setPromptCache(WhisperPromptCache promptCache) {
+        this.promptCache = promptCache;
+    }
+
+    /**
+     * Selects the binding used to read segments after a transcription: {@link WhisperCppDirect#instance}
+     * (the default, see {@link WhisperResultReader#defaultReader()}) or {@link WhisperCppJnaLibrary#instance}.
+     */
+    public void setResultReader(WhisperResultReader results) {
+        this.results = results;
     }
 
     /**
@@ -83,6 +223,8 @@ public class WhisperCpp implements AutoCloseable {
      * Because this function allocates memory for the params, the caller must call either:
      * - call `whisper_free_params()`
      * - `Native.free(Pointer.nativeValue(pointer));`
+     * Every call reads the whole struct from native memory, and JNA writes it back for each `whisper_full()`;
+     * for repeated requests with the same settings, a shared {@link WhisperParamsTemplate} avoids both.
      *
      * @param strategy - GREEDY
      */
@@ -111,7 +253,6 @@ public class WhisperCpp implements AutoCloseable {
     public void close() {
         freeContext();
         freeParams();
-        System.out.println("Whisper closed");
     }
 
     private void freeContext() {
@@ -137,7 +278,7 @@ public class WhisperCpp implements AutoCloseable {
 
     /**
      * Run the entire model: PCM -&gt; log mel spectrogram -&gt; encoder -&gt; decoder -&gt; text.
-     * Not thread safe for same context
+     * Not thread safe for same context: a call made while another one runs throws IllegalStateException.
      * Uses the specified decoding strategy to obtain the text.
      */
     public String fullTranscribe(WhisperFullParams.ByValue whisperParams, float[] audioData) throws IOException {
@@ -151,23 +292,222 @@ public class WhisperCpp implements AutoCloseable {
         valueParams.read();
         */
 
-        if (lib.whisper_full(ctx, whisperParams, audioData, audioData.length) != 0) {
+        if (runFull(whisperParams, audioData) != 0) {
+            throw new IOException("Failed to process audio");
+        }
+
+        return collectText();
+    }
+
+    /**
+     * As {@link #fullTranscribe(WhisperFullParams.ByValue, float[])}, reading the samples between position and limit
+     * of a direct FloatBuffer in place (see {@link NativeAudioBufferPool}), so the audio is not copied by JNA.
+     */
+    public String fullTranscribe(WhisperFullParams.ByValue whisperParams, FloatBuffer audioData) throws IOException {
+        return fullTranscribe(whisperParams, samplesPointer(audioData), audioData.remaining());
+    }
+
+    /**
+     * As {@link #fullTranscribe(WhisperFullParams.ByValue, float[])}, reading nSamples floats in place from native memory.
+     */
+    public String fullTranscribe(WhisperFullParams.ByValue whisperParams, Pointer samples, int nSamples) throws IOException {
+        if (ctx == null) {
+            throw new IllegalStateException("Model not initialised");
+        }
+
+        if (runFull(whisperParams, samples, nSamples) != 0) {
             throw new IOException("Failed to process audio");
         }
 
-        int nSegments = lib.whisper_full_n_segments(ctx);
+        return collectText();
+    }
+
+    private String collectText() {
+        int nSegments = results.whisper_full_n_segments(ctx);
 
         StringBuilder str = new StringBuilder();
 
         for (int i = 0; i < nSegments; i++) {
-            String text = lib.whisper_full_get_segment_text(ctx, i);
-            System.out.println("Segment:" + text);
-            str.append(text);
+            str.append(lib.whisper_full_get_segment_text(ctx, i));
         }
 
         return str.toString().trim();
     }
 
+    /**
+     * Transcribes on the executor once subscribed, streaming the segments as whisper generates them, with
+     * backpressure (up to 16 segments are buffered ahead of demand) and cancellation through the subscription.
+     * This instance must not be used for anything else until the publisher has terminated.
+     */
+    public WhisperSegmentPublisher publishSegments(WhisperFullParams.ByValue whisperParams, float[] audioData,
+                                                   Executor executor) {
+        return publishSegments(whisperParams, audioData, executor, 16);
+    }
+
+    /**
+     * As {@link #publishSegments(WhisperFullParams.ByValue, float[], Executor)}, buffering up to bufferSize
+     * segments before decoding waits for the subscriber's demand.
+     */
+    public WhisperSegmentPublisher publishSegments(WhisperFullParams.ByValue whisperParams, float[] audioData,
+                                                   Executor executor, int bufferSize) {
+        if (ctx == null) {
+            throw new IllegalStateException("Model not initialised");
+        }
+
+        return new WhisperSegmentPublisher(executor, bufferSize, (sink, abort) -> {
+            int ret = runFull(whisperParams, audioData.length,
+                    p -> lib.whisper_full(ctx, p, audioData, audioData.length), sink, abort);
+            if (ret != 0) {
+                throw new IOException(abort.get() ? "Transcription aborted" : "Failed to process audio");
+            }
+            return new TranscriptionStats(results.whisper_full_n_segments(ctx), audioData.length, lastRunNanos,
+                    getTimings());
+        });
+    }
+
+    /**
+     * Transcribes on the executor. Cancelling the returned future (or completing it any other way) raises a flag
+     * polled by whisper's abort_callback, so the native computation stops within one encoder/decoder pass instead
+     * of running to the end. Once the run has started, the future only completes after `whisper_full()` has
+     * returned: `cancel()` then returns false and the future is cancelled as soon as the native run is over, so
+     * this instance can be used again from any dependent stage. The callback is held by this instance for the run.
+     */
+    public CompletableFuture<List<WhisperSegment>> fullTranscribeWithTimeAsync(WhisperFullParams.ByValue whisperParams,
+                                                                               float[] audioData, Executor executor) {
+        if (ctx == null) {
+            throw new IllegalStateException("Model not initialised");
+        }
+
+        NativeRunFuture<List<WhisperSegment>> future = new NativeRunFuture<>();
+        executor.execute(() -> {
+            if (!future.start()) {
+                return;
+            }
+            List<WhisperSegment> segments = null;
+            Throwable failure = null;
+            try {
+                int ret = runFull(whisperParams, audioData.length,
+                        p -> lib.whisper_full(ctx, p, audioData, audioData.length), segmentSink, future.abort);
+                if (ret != 0) {
+                    throw new IOException(future.abort.get() ? "Transcription aborted" : "Failed to process audio");
+                }
+                segments = collectSegments();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            future.finish(segments, failure);
+        });
+        return future;
+    }
+
+    /**
+     * The future of one native run. Completing it from outside (cancel, timeout, complete...) before the run has
+     * started settles it at once; while the run is in progress it only raises the abort flag, and the requested
+     * outcome is applied when the run returns.
+     */
+    private static final class NativeRunFuture<T> extends CompletableFuture<T> {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int FINISHED = 2;
+
+        final AtomicBoolean abort = new AtomicBoolean();
+        // Guarded by this; CompletableFuture itself never locks on the instance
+        private int state = QUEUED;
+        private boolean settled;
+        private T settledValue;
+        private Throwable settledFailure;
+
+        synchronized boolean start() {
+            if (state != QUEUED) {
+                return false;
+            }
+            state = RUNNING;
+            return true;
+        }
+
+        void finish(T value, Throwable failure) {
+            synchronized (this) {
+                state = FINISHED;
+                if (settled) {
+                    value = settledValue;
+                    failure = settledFailure;
+                }
+            }
+            settleNow(value, failure);
+        }
+
+        @Override
+        public boolean complete(T value) {
+            return settle(value, null);
+        }
+
+        @Override
+        public boolean completeExceptionally(Throwable failure) {
+            if (failure == null) {
+                throw new NullPointerException();
+            }
+            return settle(null, failure);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return settle(null, new CancellationException());
+        }
+
+        private boolean settle(T value, Throwable failure) {
+            abort.set(true);
+            synchronized (this) {
+                if (state == QUEUED) {
+                    state = FINISHED;
+                } else if (state == RUNNING) {
+                    if (!settled) {
+                        settled = true;
+                        settledValue = value;
+                        settledFailure = failure;
+                    }
+                    return false;
+                }
+            }
+            return settleNow(value, failure);
+        }
+
+        // A CancellationException cancels, as CompletableFuture.cancel() does
+        private boolean settleNow(T value, Throwable failure) {
+            return failure == null ? super.complete(value) : super.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * As {@link #fullTranscribeWithTimeAsync(WhisperFullParams.ByValue, float[], Executor)}, aborting the native run
+     * once the timeout has elapsed and then failing the future with a TimeoutException.
+     */
+    public CompletableFuture<List<WhisperSegment>> fullTranscribeWithTimeAsync(WhisperFullParams.ByValue whisperParams,
+                                                                               float[] audioData, Executor executor,
+                                                                               long timeout, TimeUnit unit) {
+        CompletableFuture<List<WhisperSegment>> future = fullTranscribeWithTimeAsync(whisperParams, audioData, executor);
+        ScheduledFuture<?> deadline = Deadlines.SCHEDULER.schedule(
+                () -> future.completeExceptionally(new TimeoutException("Transcription exceeded " + timeout + " " + unit)),
+                timeout, unit);
+        future.whenComplete((segments, error) -> deadline.cancel(false));
+        return future;
+    }
+
+    /** Shared timer for transcription deadlines; its thread is a daemon and only fires completions. */
+    private static final class Deadlines {
+        static final ScheduledThreadPoolExecutor SCHEDULER = newScheduler();
+
+        private static ScheduledThreadPoolExecutor newScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "whisper-deadlines");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Runs that finish in time should not leave their deadline queued
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
     /**
      * Full transcribe with time list.
      *
@@ -181,23 +521,266 @@ public class WhisperCpp implements AutoCloseable {
             throw new IllegalStateException("Model not initialised");
         }
 
-        if (lib.whisper_full(ctx, whisperParams, audioData, audioData.length) != 0) {
+        if (runFull(whisperParams, audioData) != 0) {
+            throw new IOException("Failed to process audio");
+        }
+
+        return collectSegments();
+    }
+
+    /**
+     * As {@link #fullTranscribeWithTime(WhisperFullParams.ByValue, float[])}, reading the samples between position
+     * and limit of a direct FloatBuffer in place.
+     */
+    public List<WhisperSegment> fullTranscribeWithTime(WhisperFullParams.ByValue whisperParams, FloatBuffer audioData)
+            throws IOException {
+        return fullTranscribeWithTime(whisperParams, samplesPointer(audioData), audioData.remaining());
+    }
+
+    /**
+     * As {@link #fullTranscribeWithTime(WhisperFullParams.ByValue, float[])}, reading nSamples floats in place from
+     * native memory.
+     */
+    public List<WhisperSegment> fullTranscribeWithTime(WhisperFullParams.ByValue whisperParams, Pointer samples,
+                                                       int nSamples) throws IOException {
+        if (ctx == null) {
+            throw new IllegalStateException("Model not initialised");
+        }
+
+        if (runFull(whisperParams, samples, nSamples) != 0) {
             throw new IOException("Failed to process audio");
         }
 
-        int nSegments = lib.whisper_full_n_segments(ctx);
+        return collectSegments();
+    }
+
+    private List<WhisperSegment> collectSegments() {
+        int nSegments = results.whisper_full_n_segments(ctx);
         List<WhisperSegment> segments= new ArrayList<>(nSegments);
 
         for (int i = 0; i < nSegments; i++) {
-            long t0 = lib.whisper_full_get_segment_t0(ctx, i);
+            long t0 = results.whisper_full_get_segment_t0(ctx, i);
             String text = lib.whisper_full_get_segment_text(ctx, i);
-            long t1 = lib.whisper_full_get_segment_t1(ctx, i);
+            long t1 = results.whisper_full_get_segment_t1(ctx, i);
             segments.add(new WhisperSegment(t0,t1,text));
         }
 
         return segments;
     }
 
+    // Resets the default state's timings so getTimings() reports this run only, and measures wall time for the RTF.
+    private int runFull(WhisperFullParams.ByValue whisperParams, float[] audioData) {
+        return runFull(whisperParams, audioData.length,
+                p -> lib.whisper_full(ctx, p, audioData, audioData.length), segmentSink, null);
+    }
+
+    private int runFull(WhisperFullParams.ByValue whisperParams, Pointer samples, int nSamples) {
+        return runFull(whisperParams, nSamples, p -> lib.whisper_full(ctx, p, samples, nSamples),
+                segmentSink, null);
+    }
+
+    // Streams segments to the sink through new_segment_callback unless the caller installed their own callback,
+    // in which case they are delivered once whisper_full returns. A non-null abort flag is polled through
+    // abort_callback (unless the caller installed their own) and stops the run within one encoder/decoder pass.
+    // An initial_prompt found in the prompt cache is passed as prompt_tokens, which whisper then uses instead.
+    // Frozen template params are never modified: the callbacks and tokens go into a per-call bulk copy instead.
+    // Calls overlapping on this instance would share the context's single state, so they are rejected.
+    private int runFull(WhisperFullParams.ByValue whisperParams, int nSamples,
+                        ToIntFunction<WhisperFullParams.ByValue> full, WhisperSegmentSink segmentSink,
+                        AtomicBoolean abort) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A transcription is already running on this context");
+        }
+        try {
+            return runFullExclusive(whisperParams, nSamples, full, segmentSink, abort);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int runFullExclusive(WhisperFullParams.ByValue whisperParams, int nSamples,
+                                 ToIntFunction<WhisperFullParams.ByValue> full, WhisperSegmentSink segmentSink,
+                                 AtomicBoolean abort) {
+        boolean forward = segmentSink != WhisperSegmentSink.NONE && whisperParams.new_segment_callback == null;
+        boolean abortable = abort != null && whisperParams.abort_callback == null;
+        WhisperPromptCache.Tokens prompt = cachedPrompt(whisperParams);
+        boolean frozen = WhisperParamsTemplate.isFrozen(whisperParams);
+        WhisperFullParams.ByValue callParams = frozen && (forward || abortable || prompt != null)
+                ? WhisperParamsTemplate.copyOf(whisperParams)
+                : whisperParams;
+
+        String initialPrompt = whisperParams.initial_prompt;
+        if (prompt != null) {
+            callParams.prompt_tokens = prompt.pointer();
+            callParams.prompt_n_tokens = prompt.count();
+            if (frozen) {
+                callParams.writeField("prompt_tokens");
+                callParams.writeField("prompt_n_tokens");
+            } else {
+                // Ignored once prompt_tokens is set, so skip marshalling the string
+                callParams.initial_prompt = null;
+            }
+        }
+
+        SegmentForwarder forwarder = null;
+        if (forward) {
+            forwarder = new SegmentForwarder(segmentSink);
+            callParams.setNewSegmentCallback(forwarder);
+            if (frozen) {
+                callParams.writeField("new_segment_callback");
+            }
+        }
+        activeForwarder = forwarder;
+        AbortFlagCallback abortCallback = null;
+        if (abortable) {
+            abortCallback = new AbortFlagCallback(abort);
+            callParams.setAbortCallback(abortCallback);
+            if (frozen) {
+                callParams.writeField("abort_callback");
+            }
+        }
+        activeAbort = abortCallback;
+
+        lib.whisper_reset_timings(ctx);
+        long start = System.nanoTime();
+        int ret;
+        try {
+            ret = full.applyAsInt(callParams);
+        } finally {
+            lastRunNanos = System.nanoTime() - start;
+            lastRunSamples = nSamples;
+            if (forwarder != null && !frozen) {
+                whisperParams.new_segment_callback = null;
+            }
+            if (abortCallback != null && !frozen) {
+                whisperParams.abort_callback = null;
+            }
+            if (prompt != null && !frozen) {
+                whisperParams.initial_prompt = initialPrompt;
+                whisperParams.prompt_tokens = null;
+                whisperParams.prompt_n_tokens = 0;
+            }
+            activeForwarder = null;
+            activeAbort = null;
+        }
+
+        if (forwarder != null) {
+            forwarder.rethrow();
+        } else if (ret == 0 && segmentSink != WhisperSegmentSink.NONE) {
+            for (WhisperSegment segment : collectSegments()) {
+                segmentSink.onSegment(segment);
+            }
+        }
+        return ret;
+    }
+
+    private WhisperPromptCache.Tokens cachedPrompt(WhisperFullParams params) {
+        if (promptCache == null || params.prompt_tokens != null
+                || params.initial_prompt == null || params.initial_prompt.isEmpty()) {
+            return null;
+        }
+        WhisperPromptCache.Tokens tokens = promptCache.tokens(ctx, params.initial_prompt);
+        return tokens.count() > 0 ? tokens : null;
+    }
+
+    private static final class AbortFlagCallback implements GgmlAbortCallback {
+        private final AtomicBoolean abort;
+
+        AbortFlagCallback(AtomicBoolean abort) {
+            this.abort = abort;
+        }
+
+        @Override
+        public boolean invoke(Pointer data) {
+            return abort.get();
+        }
+    }
+
+    /** Reads the segments whisper just generated from the state and hands them to the sink. */
+    private final class SegmentForwarder implements WhisperNewSegmentCallback {
+        private final WhisperSegmentSink sink;
+        private RuntimeException failure;
+
+        SegmentForwarder(WhisperSegmentSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void callback(Pointer ctx, Pointer state, int n_new, Pointer user_data) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                int nSegments = results.whisper_full_n_segments_from_state(state);
+                for (int i = nSegments - n_new; i < nSegments; i++) {
+                    long t0 = results.whisper_full_get_segment_t0_from_state(state, i);
+                    String text = lib.whisper_full_get_segment_text_from_state(state, i);
+                    long t1 = results.whisper_full_get_segment_t1_from_state(state, i);
+                    sink.onSegment(new WhisperSegment(t0, t1, text));
+                }
+            } catch (RuntimeException e) {
+                // Must not unwind through native code; rethrown once whisper_full returns
+                failure = e;
+            }
+        }
+
+        void rethrow() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /** Address of the first remaining sample of a direct, native-order FloatBuffer. */
+    static Pointer samplesPointer(FloatBuffer audioData) {
+        if (!audioData.isDirect()) {
+            throw new IllegalArgumentException("Audio buffer must be direct, use float[] for heap audio");
+        }
+        if (audioData.order() != ByteOrder.nativeOrder()) {
+            throw new IllegalArgumentException("Audio buffer must use native byte order");
+        }
+        return Native.getDirectBufferPointer(audioData).share((long) audioData.position() * Float.BYTES);
+    }
+
+    /**
+     * Per-stage timings of the last transcription (averages in ms per call), copied out of the
+     * natively allocated struct which is freed before returning.
+     */
+    public WhisperTimings getTimings() {
+        if (ctx == null) {
+            throw new IllegalStateException("Model not initialised");
+        }
+        Pointer pointer = lib.whisper_get_timings(ctx);
+        if (pointer == null) {
+            return null;
+        }
+        try {
+            WhisperTimings timings = new WhisperTimings(pointer);
+            timings.read();
+            WhisperTimings copy = new WhisperTimings();
+            copy.sample_ms = timings.sample_ms;
+            copy.encode_ms = timings.encode_ms;
+            copy.decode_ms = timings.decode_ms;
+            copy.batchd_ms = timings.batchd_ms;
+            copy.prompt_ms = timings.prompt_ms;
+            return copy;
+        } finally {
+            lib.whisper_free_timings(pointer);
+        }
+    }
+
+    /**
+     * Real-time factor of the last transcription: wall time / audio duration (below 1 is faster than real time),
+     * or 0 before the first run.
+     */
+    public double getLastRealTimeFactor() {
+        if (lastRunSamples == 0) {
+            return 0;
+        }
+        double audioNanos = lastRunSamples * 1e9 / WhisperConstants.WHISPER_SAMPLE_RATE;
+        return lastRunNanos / audioNanos;
+    }
+
 //    public int getTextSegmentCount(Pointer ctx) {
 //        return lib.whisper_full_n_segments(ctx);
 //    }
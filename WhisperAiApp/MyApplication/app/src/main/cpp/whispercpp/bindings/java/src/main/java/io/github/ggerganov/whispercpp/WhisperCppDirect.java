@@ -0,0 +1,59 @@
+package io.github.ggerganov.whispercpp;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+/**
+ * Direct-mapped (`Native.register()`) binding of the per-segment and per-token accessors. Calls go straight through
+ * JNI to libwhisper instead of through the reflective proxy of {@link WhisperCppJnaLibrary}, which matters when
+ * reading thousands of tokens per transcription.
+ *
+ * Only primitive and Pointer arguments are mapped here; everything else stays in {@link WhisperCppJnaLibrary}.
+ */
+public final class WhisperCppDirect implements WhisperResultReader {
+
+    static {
+        Native.register(WhisperCppDirect.class, "whisper");
+    }
+
+    public static final WhisperCppDirect instance = new WhisperCppDirect();
+
+    private WhisperCppDirect() {
+    }
+
+    @Override
+    public native int whisper_full_n_segments(Pointer ctx);
+
+    @Override
+    public native int whisper_full_n_segments_from_state(Pointer state);
+
+    @Override
+    public native long whisper_full_get_segment_t0(Pointer ctx, int i_segment);
+
+    @Override
+    public native long whisper_full_get_segment_t0_from_state(Pointer state, int i_segment);
+
+    @Override
+    public native long whisper_full_get_segment_t1(Pointer ctx, int i_segment);
+
+    @Override
+    public native long whisper_full_get_segment_t1_from_state(Pointer state, int i_segment);
+
+    @Override
+    public native int whisper_full_n_tokens(Pointer ctx, int i_segment);
+
+    @Override
+    public native int whisper_full_n_tokens_from_state(Pointer state, int i_segment);
+
+    @Override
+    public native int whisper_full_get_token_id(Pointer ctx, int i_segment, int i_token);
+
+    @Override
+    public native int whisper_full_get_token_id_from_state(Pointer state, int i_segment, int i_token);
+
+    @Override
+    public native float whisper_full_get_token_p(Pointer ctx, int i_segment, int i_token);
+
+    @Override
+    public native float whisper_full_get_token_p_from_state(Pointer state, int i_segment, int i_token);
+}
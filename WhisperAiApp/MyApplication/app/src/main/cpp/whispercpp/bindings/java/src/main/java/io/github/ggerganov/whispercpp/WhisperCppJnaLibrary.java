@@ -5,10 +5,15 @@ import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import io.github.ggerganov.whispercpp.model.WhisperModelLoader;
 import io.github.ggerganov.whispercpp.model.WhisperTokenData;
+import io.github.ggerganov.whispercpp.params.SizeT;
 import io.github.ggerganov.whispercpp.params.WhisperContextParams;
 import io.github.ggerganov.whispercpp.params.WhisperFullParams;
 
-public interface WhisperCppJnaLibrary extends Library {
+/**
+ * Interface-mapped binding of libwhisper. The hot per-segment / per-token accessors are also available through
+ * the direct-mapped {@link WhisperCppDirect}, see {@link WhisperResultReader}.
+ */
+public interface WhisperCppJnaLibrary extends Library, WhisperResultReader {
 
     WhisperCppJnaLibrary instance = Native.load("whisper", WhisperCppJnaLibrary.class);
 
@@ -45,10 +50,25 @@ public interface WhisperCppJnaLibrary extends Library {
      * Allocate (almost) all memory needed for the model by loading from a buffer.
      *
      * @param buffer       Model buffer
+     * @param buffer_size  Size of the model buffer (size_t, so models over 2 GB fit)
+     * @return Whisper context on success, null on failure
+     */
+    Pointer whisper_init_from_buffer(Pointer buffer, SizeT buffer_size);
+
+    /**
+     * Allocate (almost) all memory needed for the model by loading from a buffer, eg: a read-only mapping of the
+     * model file. The buffer is only read during the call.
+     *
+     * @param buffer       Model buffer
      * @param buffer_size  Size of the model buffer
+     * @param params       Context params
      * @return Whisper context on success, null on failure
      */
-    Pointer whisper_init_from_buffer(Pointer buffer, int buffer_size);
+    Pointer whisper_init_from_buffer_with_params(Pointer buffer, SizeT buffer_size, WhisperContextParams.ByValue params);
+
+    /** As `whisper_init_from_buffer_with_params()`, without allocating the state. */
+    Pointer whisper_init_from_buffer_with_params_no_state(Pointer buffer, SizeT buffer_size,
+                                                          WhisperContextParams.ByValue params);
 
     /**
      * Allocate (almost) all memory needed for the model using a model loader.
@@ -66,16 +86,36 @@ public interface WhisperCppJnaLibrary extends Library {
      */
     Pointer whisper_init_from_file_no_state(String path_model);
 
+    /**
+     * Allocate (almost) all memory needed for the model, reading it through the loader's callbacks.
+     *
+     * @param loader Model loader, see {@link WhisperModelLoader#fromMappedFile} etc.
+     * @param params Context params
+     * @return Whisper context on success, null on failure
+     */
+    Pointer whisper_init_with_params(WhisperModelLoader loader, WhisperContextParams.ByValue params);
+
+    /** As `whisper_init_with_params()`, without allocating the state. */
+    Pointer whisper_init_with_params_no_state(WhisperModelLoader loader, WhisperContextParams.ByValue params);
+
+    /**
+     * Allocate (almost) all memory needed for the model by loading from a file without allocating the state.
+     * States for concurrent use are then created with `whisper_init_state()`.
+     *
+     * @param path_model Path to the model file
+     * @param params     Context params
+     * @return Whisper context on success, null on failure
+     */
+    Pointer whisper_init_from_file_with_params_no_state(String path_model, WhisperContextParams.ByValue params);
+
     /**
      * Allocate (almost) all memory needed for the model by loading from a buffer without allocating the state.
      *
      * @param buffer       Model buffer
-     * @param buffer_size  Size of the model buffer
+     * @param buffer_size  Size of the model buffer (size_t)
      * @return Whisper context on success, null on failure
      */
-    Pointer whisper_init_from_buffer_no_state(Pointer buffer, int buffer_size);
-
-//    Pointer whisper_init_from_buffer_no_state(Pointer buffer, long buffer_size);
+    Pointer whisper_init_from_buffer_no_state(Pointer buffer, SizeT buffer_size);
 
     /**
      * Allocate (almost) all memory needed for the model using a model loader without allocating the state.
@@ -249,6 +289,13 @@ public interface WhisperCppJnaLibrary extends Library {
     int whisper_token_transcribe(Pointer ctx);
 
     // Performance information from the default state.
+    /**
+     * Returns a newly allocated whisper_timings for the default state (null for contexts created without one).
+     * It is allocated with C++ {@code new}: the caller must free it with {@link #whisper_free_timings(Pointer)},
+     * not {@code Native.free()}, see {@link WhisperCpp#getTimings()}.
+     */
+    Pointer whisper_get_timings(Pointer ctx);
+    void whisper_free_timings(Pointer timings);
     void whisper_print_timings(Pointer ctx);
     void whisper_reset_timings(Pointer ctx);
 
@@ -275,7 +322,16 @@ public interface WhisperCppJnaLibrary extends Library {
      */
     int whisper_full(Pointer ctx, WhisperFullParams.ByValue params, final float[] samples, int n_samples);
 
+    /**
+     * As `whisper_full()`, reading the samples in place from native memory (a JNA `Memory` or the address of a
+     * direct `FloatBuffer`), so JNA does not copy the audio to and from a Java array on each call.
+     */
+    int whisper_full(Pointer ctx, WhisperFullParams.ByValue params, Pointer samples, int n_samples);
+
     public int whisper_full_with_state(Pointer ctx, Pointer state, WhisperFullParams.ByValue params, float[] samples, int n_samples);
+
+    /** As `whisper_full_with_state()`, reading the samples in place from native memory. */
+    int whisper_full_with_state(Pointer ctx, Pointer state, WhisperFullParams.ByValue params, Pointer samples, int n_samples);
     //int whisper_full_with_state(Pointer ctx, Pointer state, WhisperFullParams params, final float[] samples, int n_samples);
 
     // Split the input audio in chunks and process each chunk separately using whisper_full_with_state()
@@ -0,0 +1,256 @@
+package io.github.ggerganov.whispercpp;
+
+import com.sun.jna.Pointer;
+import io.github.ggerganov.whispercpp.bean.WhisperSegment;
+import io.github.ggerganov.whispercpp.params.WhisperContextParams;
+import io.github.ggerganov.whispercpp.params.WhisperFullParams;
+import io.github.ggerganov.whispercpp.params.WhisperParamsTemplate;
+import io.github.ggerganov.whispercpp.params.WhisperSamplingStrategy;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe counterpart of {@link WhisperCpp}: the model weights are loaded once
+ * (`whisper_init_from_file_with_params_no_state()`) and shared by a fixed set of `whisper_state`s.
+ * Each call leases a state, runs `whisper_full_with_state()` and reads the results through the
+ * `*_from_state` accessors, so up to `nStates` threads transcribe concurrently against one model.
+ *
+ * All states share one frozen {@link WhisperParamsTemplate}: it is never rewritten by JNA, so concurrent calls
+ * read the same native params block without racing.
+ */
+public class WhisperCppPool implements AutoCloseable {
+    private final WhisperCppJnaLibrary lib;
+    private final WhisperResultReader results;
+    private final Pointer ctx;
+    private final WhisperParamsTemplate params;
+    private final Lease[] leases;
+    private final BlockingQueue<Lease> free;
+    private volatile boolean closed;
+
+    private static final class Lease {
+        final Pointer state;
+
+        Lease(Pointer state) {
+            this.state = state;
+        }
+    }
+
+    // Handed to callers still blocked in lease() once the pool is freed
+    private static final Lease CLOSED = new Lease(null);
+
+    /**
+     * @param modelPath - absolute path, or just the name (eg: "base", "base-en" or "base.en")
+     * @param nStates - number of concurrent transcriptions
+     * @param strategy - sampling strategy of each state's params
+     * @param configure - applied once to the shared params (threads, language, ...); may be null
+     */
+    public WhisperCppPool(String modelPath, int nStates, WhisperSamplingStrategy strategy,
+                          Consumer<WhisperFullParams> configure) throws FileNotFoundException {
+        this(modelPath, nStates, WhisperParamsTemplate.create(strategy, configure));
+    }
+
+    /**
+     * @param modelPath - absolute path, or just the name (eg: "base", "base-en" or "base.en")
+     * @param nStates - number of concurrent transcriptions
+     * @param params - decoding params used by every transcription
+     */
+    public WhisperCppPool(String modelPath, int nStates, WhisperParamsTemplate params) throws FileNotFoundException {
+        this(WhisperCppJnaLibrary.instance, WhisperResultReader.defaultReader(),
+                loadModel(WhisperCppJnaLibrary.instance, modelPath, nStates), nStates, params);
+    }
+
+    // Takes ownership of a `*_no_state` context; package-private so tests can drive the leasing with a stub library
+    WhisperCppPool(WhisperCppJnaLibrary lib, WhisperResultReader results, Pointer ctx, int nStates,
+                   WhisperParamsTemplate params) {
+        checkStates(nStates);
+        this.lib = lib;
+        this.results = results;
+        this.ctx = ctx;
+        this.params = params;
+        leases = new Lease[nStates];
+        free = new ArrayBlockingQueue<>(nStates);
+        for (int i = 0; i < nStates; i++) {
+            Pointer state = lib.whisper_init_state(ctx);
+            if (state == null) {
+                freeNative(i);
+                throw new IllegalStateException("Failed to init whisper state " + i);
+            }
+            leases[i] = new Lease(state);
+            free.add(leases[i]);
+        }
+    }
+
+    private static void checkStates(int nStates) {
+        if (nStates < 1) {
+            throw new IllegalArgumentException("nStates must be >= 1");
+        }
+    }
+
+    private static Pointer loadModel(WhisperCppJnaLibrary lib, String modelPath, int nStates)
+            throws FileNotFoundException {
+        checkStates(nStates); // before paying for the load
+        modelPath = WhisperCpp.resolveModelPath(WhisperCpp.defaultModelDir(), modelPath);
+
+        Pointer ctx;
+        Pointer contextParamsPointer = lib.whisper_context_default_params_by_ref();
+        try {
+            WhisperContextParams.ByValue contextParams = new WhisperContextParams.ByValue(contextParamsPointer);
+            contextParams.read();
+            ctx = lib.whisper_init_from_file_with_params_no_state(modelPath, contextParams);
+        } finally {
+            lib.whisper_free_context_params(contextParamsPointer); // allocated with new
+        }
+        if (ctx == null) {
+            throw new FileNotFoundException(modelPath);
+        }
+        return ctx;
+    }
+
+    public int size() {
+        return leases.length;
+    }
+
+    /**
+     * Run the entire model: PCM -&gt; log mel spectrogram -&gt; encoder -&gt; decoder -&gt; text,
+     * on a leased state. Blocks while all states are busy. Safe to call from many threads.
+     */
+    public String fullTranscribe(float[] audioData) throws IOException, InterruptedException {
+        Lease lease = lease();
+        try {
+            check(lib.whisper_full_with_state(ctx, lease.state, params.params(), audioData, audioData.length));
+            return collectText(lease.state);
+        } finally {
+            free.add(lease);
+        }
+    }
+
+    /**
+     * As {@link #fullTranscribe(float[])}, reading the samples between position and limit of a direct FloatBuffer
+     * in place (see {@link NativeAudioBufferPool}), so the audio is not copied by JNA.
+     */
+    public String fullTranscribe(FloatBuffer audioData) throws IOException, InterruptedException {
+        return fullTranscribe(WhisperCpp.samplesPointer(audioData), audioData.remaining());
+    }
+
+    /** As {@link #fullTranscribe(float[])}, reading nSamples floats in place from native memory. */
+    public String fullTranscribe(Pointer samples, int nSamples) throws IOException, InterruptedException {
+        Lease lease = lease();
+        try {
+            check(lib.whisper_full_with_state(ctx, lease.state, params.params(), samples, nSamples));
+            return collectText(lease.state);
+        } finally {
+            free.add(lease);
+        }
+    }
+
+    /**
+     * Like {@link #fullTranscribe(float[])}, returning segments with their start and end times.
+     */
+    public List<WhisperSegment> fullTranscribeWithTime(float[] audioData) throws IOException, InterruptedException {
+        Lease lease = lease();
+        try {
+            check(lib.whisper_full_with_state(ctx, lease.state, params.params(), audioData, audioData.length));
+            return collectSegments(lease.state);
+        } finally {
+            free.add(lease);
+        }
+    }
+
+    /** As {@link #fullTranscribeWithTime(float[])}, reading nSamples floats in place from native memory. */
+    public List<WhisperSegment> fullTranscribeWithTime(Pointer samples, int nSamples)
+            throws IOException, InterruptedException {
+        Lease lease = lease();
+        try {
+            check(lib.whisper_full_with_state(ctx, lease.state, params.params(), samples, nSamples));
+            return collectSegments(lease.state);
+        } finally {
+            free.add(lease);
+        }
+    }
+
+    private static void check(int ret) throws IOException {
+        if (ret != 0) {
+            throw new IOException("Failed to process audio");
+        }
+    }
+
+    private String collectText(Pointer state) {
+        int nSegments = results.whisper_full_n_segments_from_state(state);
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < nSegments; i++) {
+            str.append(lib.whisper_full_get_segment_text_from_state(state, i));
+        }
+        return str.toString().trim();
+    }
+
+    private List<WhisperSegment> collectSegments(Pointer state) {
+        int nSegments = results.whisper_full_n_segments_from_state(state);
+        List<WhisperSegment> segments = new ArrayList<>(nSegments);
+        for (int i = 0; i < nSegments; i++) {
+            long t0 = results.whisper_full_get_segment_t0_from_state(state, i);
+            String text = lib.whisper_full_get_segment_text_from_state(state, i);
+            long t1 = results.whisper_full_get_segment_t1_from_state(state, i);
+            segments.add(new WhisperSegment(t0, t1, text));
+        }
+        return segments;
+    }
+
+    private Lease lease() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Pool is closed");
+        }
+        Lease lease = free.take();
+        if (lease == CLOSED || closed) {
+            free.add(lease); // let close() or the next waiter have it
+            throw new IllegalStateException("Pool is closed");
+        }
+        return lease;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Waits for running transcriptions to return their states, then frees the states and the model.
+     * Transcriptions started afterwards, or still waiting for a state, fail with IllegalStateException.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        boolean interrupted = false;
+        for (int drained = 0; drained < leases.length; ) {
+            try {
+                if (free.take() != CLOSED) {
+                    drained++;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        freeNative(leases.length);
+        free.add(CLOSED);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void freeNative(int nLeases) {
+        for (int i = 0; i < nLeases; i++) {
+            lib.whisper_free_state(leases[i].state);
+        }
+        lib.whisper_free(ctx);
+    }
+}
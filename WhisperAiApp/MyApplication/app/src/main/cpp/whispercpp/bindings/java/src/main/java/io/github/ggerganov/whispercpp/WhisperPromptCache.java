@@ -0,0 +1,149 @@
+package io.github.ggerganov.whispercpp;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the tokens of `initial_prompt` strings, so a prompt repeated across requests (eg: a domain vocabulary)
+ * is tokenized once with `whisper_tokenize()` instead of inside every `whisper_full()`.
+ * The cached tokens are passed as `prompt_tokens` / `prompt_n_tokens`, which whisper uses in place of
+ * `initial_prompt` (`carry_initial_prompt` applies to them the same way).
+ *
+ * <pre>
+ * WhisperPromptCache prompts = new WhisperPromptCache(64);
+ * whisper.setPromptCache(prompts);
+ * params.initial_prompt = "Kubernetes, kubectl, etcd.";
+ * whisper.fullTranscribe(params, samples);   // tokenized here
+ * whisper.fullTranscribe(params, samples);   // cached tokens reused
+ * </pre>
+ *
+ * Entries are keyed by the prompt text and the model's vocabulary, so one cache can be shared by contexts and
+ * threads. The least recently used entry is evicted beyond `maxEntries`; its native tokens are freed once no
+ * params still reference them. Thread safe.
+ */
+public class WhisperPromptCache {
+    private final WhisperCppJnaLibrary lib = WhisperCppJnaLibrary.instance;
+    private final Map<Key, Tokens> entries;
+    // Scratch for whisper_tokenize, grown as needed and reused across misses (guarded by this)
+    private Memory scratch = new Memory(256L * Integer.BYTES);
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxEntries - how many distinct prompts to keep
+     */
+    public WhisperPromptCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1");
+        }
+        this.entries = new LinkedHashMap<Key, Tokens>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Tokens> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The tokens of prompt for the model loaded in ctx, tokenizing it on a miss.
+     *
+     * @throws IllegalArgumentException if whisper cannot tokenize the prompt
+     */
+    public synchronized Tokens tokens(Pointer ctx, String prompt) {
+        Key key = new Key(lib.whisper_n_vocab(ctx), prompt);
+        Tokens tokens = entries.get(key);
+        if (tokens != null) {
+            hits++;
+            return tokens;
+        }
+        misses++;
+
+        int n = lib.whisper_tokenize(ctx, prompt, scratch, capacity());
+        if (n < 0) {
+            scratch.close();
+            scratch = new Memory((long) -n * Integer.BYTES);
+            n = lib.whisper_tokenize(ctx, prompt, scratch, capacity());
+        }
+        if (n < 0) {
+            throw new IllegalArgumentException("Failed to tokenize prompt: " + prompt);
+        }
+
+        Memory memory = null;
+        if (n > 0) {
+            memory = new Memory((long) n * Integer.BYTES);
+            memory.write(0, scratch.getIntArray(0, n), 0, n);
+        }
+        tokens = new Tokens(memory, n);
+        entries.put(key, tokens);
+        return tokens;
+    }
+
+    private int capacity() {
+        return (int) (scratch.size() / Integer.BYTES);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /** The tokens of one prompt, in native memory. */
+    public static final class Tokens {
+        private final Memory memory;
+        private final int count;
+
+        private Tokens(Memory memory, int count) {
+            this.memory = memory;
+            this.count = count;
+        }
+
+        /** For `prompt_tokens`: null when the prompt has no tokens. */
+        public Pointer pointer() {
+            return memory;
+        }
+
+        /** For `prompt_n_tokens`. */
+        public int count() {
+            return count;
+        }
+    }
+
+    // Models with the same vocabulary share the tokenizer, and so the tokens
+    private static final class Key {
+        private final int nVocab;
+        private final String prompt;
+
+        Key(int nVocab, String prompt) {
+            this.nVocab = nVocab;
+            this.prompt = prompt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return nVocab == other.nVocab && prompt.equals(other.prompt);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * nVocab + prompt.hashCode();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.ggerganov.whispercpp;
+
+import com.sun.jna.Pointer;
+
+/**
+ * The hot, primitive-only result accessors, called once per segment or token when reading a transcription.
+ *
+ * Two bindings exist: {@link WhisperCppJnaLibrary#instance} (interface mapping: reflection and proxy dispatch on
+ * every call) and {@link WhisperCppDirect#instance} (direct mapping via `Native.register()`, several times cheaper
+ * per call). {@link #defaultReader()} picks direct mapping unless `-Dwhispercpp.directMapping=false` is set.
+ */
+public interface WhisperResultReader {
+
+    /** Number of generated text segments. */
+    int whisper_full_n_segments(Pointer ctx);
+
+    int whisper_full_n_segments_from_state(Pointer state);
+
+    /** Get the start time of the specified segment. */
+    long whisper_full_get_segment_t0(Pointer ctx, int i_segment);
+
+    long whisper_full_get_segment_t0_from_state(Pointer state, int i_segment);
+
+    /** Get the end time of the specified segment. */
+    long whisper_full_get_segment_t1(Pointer ctx, int i_segment);
+
+    long whisper_full_get_segment_t1_from_state(Pointer state, int i_segment);
+
+    /** Get the number of tokens in the specified segment. */
+    int whisper_full_n_tokens(Pointer ctx, int i_segment);
+
+    int whisper_full_n_tokens_from_state(Pointer state, int i_segment);
+
+    /** Get the token ID of the specified token in the specified segment. */
+    int whisper_full_get_token_id(Pointer ctx, int i_segment, int i_token);
+
+    int whisper_full_get_token_id_from_state(Pointer state, int i_segment, int i_token);
+
+    /** Get the probability of the specified token in the specified segment. */
+    float whisper_full_get_token_p(Pointer ctx, int i_segment, int i_token);
+
+    float whisper_full_get_token_p_from_state(Pointer state, int i_segment, int i_token);
+
+    /**
+     * {@link WhisperCppDirect#instance}, or the interface-mapped library when `whispercpp.directMapping` is "false"
+     * or the direct binding cannot be registered.
+     */
+    static WhisperResultReader defaultReader() {
+        return DefaultReader.INSTANCE;
+    }
+
+    /** Lazily resolves {@link #defaultReader()} once per class loader. */
+    final class DefaultReader {
+        static final WhisperResultReader INSTANCE = select();
+
+        private DefaultReader() {
+        }
+
+        private static WhisperResultReader select() {
+            if (!Boolean.parseBoolean(System.getProperty("whispercpp.directMapping", "true"))) {
+                return WhisperCppJnaLibrary.instance;
+            }
+            try {
+                return WhisperCppDirect.instance;
+            } catch (LinkageError e) {
+                return WhisperCppJnaLibrary.instance;
+            }
+        }
+    }
+}
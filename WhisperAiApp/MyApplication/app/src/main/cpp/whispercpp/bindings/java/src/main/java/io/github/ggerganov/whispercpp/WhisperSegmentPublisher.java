@@ -0,0 +1,224 @@
+package io.github.ggerganov.whispercpp;
+
+import io.github.ggerganov.whispercpp.bean.TranscriptionStats;
+import io.github.ggerganov.whispercpp.bean.WhisperSegment;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the segments of one transcription as whisper generates them, following the Reactive Streams /
+ * `java.util.concurrent.Flow` contract (these bindings target Java 8, so the Flow interfaces are mirrored here;
+ * adapting to `Flow.Publisher` is a one-line lambda per method).
+ *
+ * The transcription starts when the (single) subscriber subscribes and runs on the given executor.
+ * Segments are delivered only as requested; up to `bufferSize` undelivered segments are buffered, after which
+ * the decoder waits for demand. {@link Subscription#cancel()} aborts the native run at its next abort check.
+ * Completion carries the run's {@link TranscriptionStats}.
+ *
+ * Obtain instances from {@link WhisperCpp#publishSegments}.
+ */
+public final class WhisperSegmentPublisher {
+
+    /** Receives the segments, as `Flow.Subscriber&lt;WhisperSegment&gt;` with stats on completion. */
+    public interface Subscriber {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(WhisperSegment segment);
+
+        void onError(Throwable throwable);
+
+        void onComplete(TranscriptionStats stats);
+    }
+
+    /** As `Flow.Subscription`. */
+    public interface Subscription {
+        /** Allows n more segments to be delivered; n must be positive. */
+        void request(long n);
+
+        /** Stops delivery and aborts the transcription. */
+        void cancel();
+    }
+
+    /** The transcription: pushes every segment to the sink and polls abort; returns the stats when done. */
+    interface Job {
+        TranscriptionStats run(WhisperSegmentSink sink, AtomicBoolean abort) throws Exception;
+    }
+
+    private final Executor executor;
+    private final int bufferSize;
+    private final Job job;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    WhisperSegmentPublisher(Executor executor, int bufferSize, Job job) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be >= 1");
+        }
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.job = job;
+    }
+
+    /**
+     * Starts the transcription for this subscriber. A publisher runs once; later subscribers get onError.
+     */
+    public void subscribe(Subscriber subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("WhisperSegmentPublisher allows only one subscriber"));
+            return;
+        }
+
+        SegmentSubscription subscription = new SegmentSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        try {
+            executor.execute(subscription::runJob);
+        } catch (RejectedExecutionException e) {
+            subscription.fail(e);
+        }
+    }
+
+    private final class SegmentSubscription implements Subscription, WhisperSegmentSink {
+        private final Subscriber subscriber;
+        private final AtomicBoolean abort = new AtomicBoolean();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // Guarded by this
+        private final ArrayDeque<WhisperSegment> buffer = new ArrayDeque<>();
+        private long demand;
+        private boolean done;
+        private TranscriptionStats stats;
+        private Throwable error;
+        private boolean terminated;
+
+        SegmentSubscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void runJob() {
+            try {
+                TranscriptionStats result = job.run(this, abort);
+                synchronized (this) {
+                    stats = result;
+                    done = true;
+                }
+                drain();
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        void fail(Throwable e) {
+            synchronized (this) {
+                if (error == null) {
+                    error = e;
+                }
+                notifyAll();
+            }
+            drain();
+        }
+
+        // Runs on the decoding thread: blocks while the buffer is full, which pauses decoding until there is demand
+        @Override
+        public void onSegment(WhisperSegment segment) {
+            synchronized (this) {
+                while (buffer.size() >= bufferSize && !abort.get() && error == null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        abort.set(true);
+                    }
+                }
+                if (abort.get() || error != null) {
+                    return;
+                }
+                buffer.add(segment);
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                abort.set(true);
+                fail(new IllegalArgumentException("request must be positive, was " + n));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            abort.set(true);
+            synchronized (this) {
+                terminated = true;
+                buffer.clear();
+                notifyAll();
+            }
+        }
+
+        // Serializes signals to the subscriber across the decoding thread and threads calling request()
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (true) {
+                    WhisperSegment next = null;
+                    TranscriptionStats completion = null;
+                    Throwable failure = null;
+                    synchronized (this) {
+                        if (terminated) {
+                            buffer.clear();
+                            break;
+                        }
+                        if (error != null) {
+                            failure = error;
+                            terminated = true;
+                            buffer.clear();
+                        } else if (demand > 0 && !buffer.isEmpty()) {
+                            next = buffer.poll();
+                            demand--;
+                            notifyAll();
+                        } else if (done && buffer.isEmpty()) {
+                            completion = stats;
+                            terminated = true;
+                        } else {
+                            break;
+                        }
+                    }
+
+                    if (failure != null) {
+                        subscriber.onError(failure);
+                    } else if (completion != null) {
+                        subscriber.onComplete(completion);
+                    } else {
+                        try {
+                            subscriber.onNext(next);
+                        } catch (RuntimeException e) {
+                            // A throwing subscriber is treated as cancelled
+                            cancel();
+                        }
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.ggerganov.whispercpp;
+
+import io.github.ggerganov.whispercpp.bean.WhisperSegment;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receives each text segment of a transcription. {@link WhisperCpp} calls it from the decoding thread as soon as
+ * a segment is generated, so consumers can start on the text before the whole audio has been decoded.
+ *
+ * Nothing is built or printed for the default {@link #NONE}.
+ */
+@FunctionalInterface
+public interface WhisperSegmentSink {
+
+    /** Discards segments; the default. */
+    WhisperSegmentSink NONE = segment -> { };
+
+    /**
+     * Called once per segment, in order. Must not call back into the same WhisperCpp instance.
+     * An exception fails the transcription once whisper returns; later segments are not delivered.
+     */
+    void onSegment(WhisperSegment segment);
+
+    /**
+     * Logs each segment as "segment [t0 --&gt; t1]: text" (times in 10 ms units), with the times and text as
+     * parameters; nothing is formatted unless the level is enabled.
+     */
+    static WhisperSegmentSink logging(Logger logger, Level level) {
+        return segment -> {
+            if (logger.isLoggable(level)) {
+                logger.log(level, "segment [{0} --> {1}]: {2}",
+                        new Object[]{segment.getStart(), segment.getEnd(), segment.getSentence()});
+            }
+        };
+    }
+}
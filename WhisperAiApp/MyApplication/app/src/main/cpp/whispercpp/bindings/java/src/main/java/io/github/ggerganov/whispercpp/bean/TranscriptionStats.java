@@ -0,0 +1,49 @@
+package io.github.ggerganov.whispercpp.bean;
+
+import io.github.ggerganov.whispercpp.WhisperConstants;
+import io.github.ggerganov.whispercpp.model.WhisperTimings;
+
+/**
+ * Summary of a finished transcription, delivered on completion of a segment stream.
+ */
+public class TranscriptionStats {
+  private final int segmentCount;
+  private final int audioSamples;
+  private final long wallNanos;
+  private final WhisperTimings timings;
+
+  public TranscriptionStats(int segmentCount, int audioSamples, long wallNanos, WhisperTimings timings) {
+    this.segmentCount = segmentCount;
+    this.audioSamples = audioSamples;
+    this.wallNanos = wallNanos;
+    this.timings = timings;
+  }
+
+  public int getSegmentCount() {
+    return segmentCount;
+  }
+
+  public double getAudioSeconds() {
+    return (double) audioSamples / WhisperConstants.WHISPER_SAMPLE_RATE;
+  }
+
+  public double getWallSeconds() {
+    return wallNanos / 1e9;
+  }
+
+  /** Wall time / audio duration; below 1 is faster than real time. */
+  public double getRealTimeFactor() {
+    return audioSamples == 0 ? 0 : getWallSeconds() / getAudioSeconds();
+  }
+
+  /** Per-stage timings of the run, or null if whisper did not report any. */
+  public WhisperTimings getTimings() {
+    return timings;
+  }
+
+  @Override
+  public String toString() {
+    return segmentCount + " segments, " + getAudioSeconds() + "s audio in " + getWallSeconds() + "s (rtf "
+        + getRealTimeFactor() + ")" + (timings == null ? "" : ": " + timings);
+  }
+}
@@ -3,60 +3,226 @@ package io.github.ggerganov.whispercpp.model;
 import com.sun.jna.Callback;
 import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
+import io.github.ggerganov.whispercpp.params.SizeT;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * `whisper_model_loader`: lets `whisper_init_with_params()` pull the model bytes from Java, eg: from a memory-mapped
+ * file, a ByteBuffer or a jar resource, without writing a temp file first.
+ *
+ * <pre>
+ * try (InputStream in = getClass().getResourceAsStream("/ggml-tiny.en.bin")) {
+ *     whisper.initContext(WhisperModelLoader.fromInputStream(in), whisper.getContextDefaultParams());
+ * }
+ * </pre>
+ *
+ * Bytes are copied straight into whisper's output pointer. The loader (and with it the callbacks) must stay
+ * reachable until `whisper_init*()` returns; whisper calls `close` before returning, which closes the source.
+ * A loader can be used once.
+ */
 public class WhisperModelLoader extends Structure {
     public Pointer context;
-    public ReadFunction read;
-    public EOFFunction eof;
-    public CloseFunction close;
-
-    public static class ReadFunction implements Callback {
-        public Pointer invoke(Pointer ctx, Pointer output, int readSize) {
-            // TODO
-            return ctx;
-        }
+    public ReadCallback read;
+    public EOFCallback eof;
+    public CloseCallback close;
+
+    private final Source source;
+    private IOException failure;
+    private boolean exhausted;
+
+    public interface ReadCallback extends Callback {
+        SizeT invoke(Pointer ctx, Pointer output, SizeT readSize);
     }
 
-    public static class EOFFunction implements Callback {
-        public boolean invoke(Pointer ctx) {
-            // TODO
-            return false;
-        }
+    public interface EOFCallback extends Callback {
+        boolean invoke(Pointer ctx);
     }
 
-    public static class CloseFunction implements Callback {
-        public void invoke(Pointer ctx) {
-            // TODO
-        }
+    public interface CloseCallback extends Callback {
+        void invoke(Pointer ctx);
     }
 
-//    public WhisperModelLoader(Pointer p) {
-//        super(p);
-//        read = new ReadFunction();
-//        eof = new EOFFunction();
-//        close = new CloseFunction();
-//        read.setCallback(this);
-//        eof.setCallback(this);
-//        close.setCallback(this);
-//        read.write();
-//        eof.write();
-//        close.write();
-//    }
+    /**
+     * Model bytes to hand to whisper.
+     */
+    public interface Source {
+        /**
+         * Copies up to output.remaining() bytes into output (a view over whisper's native buffer).
+         *
+         * @return the number of bytes copied, or -1 at the end of the model
+         */
+        int read(ByteBuffer output) throws IOException;
 
+        void close() throws IOException;
+    }
+
+    /**
+     * A loader without callbacks: the caller must set `context`, `read`, `eof` and `close` before use.
+     *
+     * @deprecated use {@link #fromMappedFile}, {@link #fromByteBuffer}, {@link #fromInputStream}
+     * or {@link #WhisperModelLoader(Source)}
+     */
+    @Deprecated
     public WhisperModelLoader() {
         super();
+        this.source = null;
     }
 
-    public interface ReadCallback extends Callback {
-        Pointer invoke(Pointer ctx, Pointer output, int readSize);
+    public WhisperModelLoader(Source source) {
+        super();
+        this.source = source;
+        read = (ctx, output, readSize) -> new SizeT(readInto(output, readSize.longValue()));
+        eof = ctx -> exhausted || failure != null;
+        close = ctx -> {
+            try {
+                source.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        };
     }
 
-    public interface EOFCallback extends Callback {
-        boolean invoke(Pointer ctx);
+    /**
+     * Maps the model file read-only and copies from the mapping; the file is mapped in windows of up to 1 GiB,
+     * so models larger than 2 GiB work too.
+     */
+    public static WhisperModelLoader fromMappedFile(Path path) throws IOException {
+        return new WhisperModelLoader(new MappedFileSource(FileChannel.open(path, StandardOpenOption.READ)));
     }
 
-    public interface CloseCallback extends Callback {
-        void invoke(Pointer ctx);
+    /**
+     * Copies from the bytes between the buffer's position and limit (the buffer itself is not modified).
+     * A direct buffer, eg: one mapped by the caller, is copied native to native.
+     */
+    public static WhisperModelLoader fromByteBuffer(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        return new WhisperModelLoader(new Source() {
+            @Override
+            public int read(ByteBuffer output) {
+                if (!view.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(output.remaining(), view.remaining());
+                ByteBuffer slice = view.slice();
+                slice.limit(n);
+                output.put(slice);
+                view.position(view.position() + n);
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    /**
+     * Streams the model from any InputStream, eg: a resource inside a jar. A FileInputStream is read through its
+     * channel straight into native memory; other streams go through the small transfer buffer of
+     * {@link Channels#newChannel(InputStream)}. The stream is closed when loading ends.
+     */
+    public static WhisperModelLoader fromInputStream(InputStream in) {
+        ReadableByteChannel channel = in instanceof FileInputStream
+                ? ((FileInputStream) in).getChannel()
+                : Channels.newChannel(in);
+        return new WhisperModelLoader(new Source() {
+            @Override
+            public int read(ByteBuffer output) throws IOException {
+                return channel.read(output);
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        });
+    }
+
+    /**
+     * The error that made loading fail, if any (whisper itself only reports a null context).
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // Fills output[0, size) unless the source ends or fails; must not throw into native code.
+    private long readInto(Pointer output, long size) {
+        long done = 0;
+        try {
+            while (done < size && !exhausted) {
+                int chunk = (int) Math.min(size - done, Integer.MAX_VALUE);
+                ByteBuffer target = output.getByteBuffer(done, chunk);
+                while (target.hasRemaining()) {
+                    int n = source.read(target);
+                    if (n < 0) {
+                        exhausted = true;
+                        break;
+                    }
+                }
+                done += target.position();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException(e);
+        }
+        return done;
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        return Arrays.asList("context", "read", "eof", "close");
+    }
+
+    private static final class MappedFileSource implements Source {
+        private static final long WINDOW = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedFileSource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read(ByteBuffer output) throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                long start = window == null ? 0 : windowStart + window.capacity();
+                if (start >= size) {
+                    return -1;
+                }
+                windowStart = start;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+            }
+            int n = Math.min(output.remaining(), window.remaining());
+            ByteBuffer slice = window.slice();
+            slice.limit(n);
+            output.put(slice);
+            window.position(window.position() + n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
     }
 }
@@ -0,0 +1,48 @@
+package io.github.ggerganov.whispercpp.model;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Performance information of the default state, as returned by {@code whisper_get_timings()}.
+ * All values are averages in milliseconds per call of the respective stage.
+ */
+public class WhisperTimings extends Structure {
+
+    /** Time per token sampling call. */
+    public float sample_ms;
+
+    /** Time per encoder pass (one per 30 s window). */
+    public float encode_ms;
+
+    /** Time per single-token decoder call. */
+    public float decode_ms;
+
+    /** Time per batched decoder call. */
+    public float batchd_ms;
+
+    /** Time per prompt processing call. */
+    public float prompt_ms;
+
+    public WhisperTimings() {
+        super();
+    }
+
+    public WhisperTimings(Pointer p) {
+        super(p);
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        return Arrays.asList("sample_ms", "encode_ms", "decode_ms", "batchd_ms", "prompt_ms");
+    }
+
+    @Override
+    public String toString() {
+        return "encode=" + encode_ms + "ms decode=" + decode_ms + "ms batchd=" + batchd_ms
+                + "ms prompt=" + prompt_ms + "ms sample=" + sample_ms + "ms";
+    }
+}
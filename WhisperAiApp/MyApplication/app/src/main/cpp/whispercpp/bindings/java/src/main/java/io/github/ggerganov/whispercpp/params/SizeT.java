@@ -0,0 +1,19 @@
+package io.github.ggerganov.whispercpp.params;
+
+import com.sun.jna.IntegerType;
+import com.sun.jna.Native;
+
+/**
+ * C `size_t`: 8 bytes on 64-bit platforms, 4 on 32-bit ones.
+ */
+public class SizeT extends IntegerType {
+    public static final SizeT ZERO = new SizeT(0);
+
+    public SizeT() {
+        this(0);
+    }
+
+    public SizeT(long value) {
+        super(Native.SIZE_T_SIZE, value, true);
+    }
+}
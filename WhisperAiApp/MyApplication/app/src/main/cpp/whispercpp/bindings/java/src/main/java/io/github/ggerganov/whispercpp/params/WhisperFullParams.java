@@ -163,6 +163,7 @@ public class WhisperFullParams extends Structure {
     /** Prompt tokens. (int*) */
     public Pointer prompt_tokens;
 
+    /** Copies the tokens to newly allocated native memory; for prompts repeated across calls see `WhisperPromptCache`. */
     public void setPromptTokens(int[] tokens) {
         Memory mem = new Memory(tokens.length * 4L);
         mem.write(0, tokens, 0, tokens.length);
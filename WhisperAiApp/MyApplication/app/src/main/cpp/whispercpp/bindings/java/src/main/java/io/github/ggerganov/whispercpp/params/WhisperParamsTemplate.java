@@ -0,0 +1,98 @@
+package io.github.ggerganov.whispercpp.params;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import io.github.ggerganov.whispercpp.WhisperCppJnaLibrary;
+
+import java.util.function.Consumer;
+
+/**
+ * A preconfigured `whisper_full_params` block, written to native memory once and then frozen: JNA's
+ * auto-write/auto-read are disabled on {@link #params()}, so passing it to `whisper_full()` copies the native
+ * bytes as they are instead of marshalling ~55 fields through reflection on every call.
+ *
+ * <pre>
+ * static final WhisperParamsTemplate SHORT_CLIPS = WhisperParamsTemplate.create(
+ *         WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY, p -&gt; {
+ *             p.language = "en";
+ *             p.no_context = CBool.TRUE;
+ *             p.print_progress = CBool.FALSE;
+ *         });
+ * ...
+ * whisper.fullTranscribe(SHORT_CLIPS.params(), samples);
+ * </pre>
+ *
+ * Thread safe to share: whisper takes the params by value and never writes to the block.
+ * Callback objects set while configuring must be kept reachable by the caller, as with any JNA callback.
+ */
+public final class WhisperParamsTemplate {
+    private final WhisperFullParams.ByValue params;
+
+    private WhisperParamsTemplate(WhisperFullParams.ByValue params) {
+        this.params = params;
+    }
+
+    /**
+     * Starts from `whisper_full_default_params(strategy)`, applies configure, and writes the result once.
+     */
+    public static WhisperParamsTemplate create(WhisperSamplingStrategy strategy, Consumer<WhisperFullParams> configure) {
+        return create(WhisperCppJnaLibrary.instance, strategy, configure);
+    }
+
+    /**
+     * As {@link #create(WhisperSamplingStrategy, Consumer)}, reading the defaults through the given binding.
+     */
+    public static WhisperParamsTemplate create(WhisperCppJnaLibrary lib, WhisperSamplingStrategy strategy,
+                                               Consumer<WhisperFullParams> configure) {
+        WhisperFullParams.ByValue params = new WhisperFullParams.ByValue(new Memory(new WhisperFullParams().size()));
+        Pointer defaults = lib.whisper_full_default_params_by_ref(strategy.ordinal());
+        try {
+            copy(defaults, params.getPointer(), params.size());
+        } finally {
+            // Allocated with new, so not for Native.free()
+            lib.whisper_free_params(defaults);
+        }
+        params.read();
+        if (configure != null) {
+            configure.accept(params);
+        }
+        // Strings and prompt tokens written here stay owned by this struct, and so live as long as the template
+        params.write();
+        params.setAutoWrite(false);
+        params.setAutoRead(false);
+        return new WhisperParamsTemplate(params);
+    }
+
+    /**
+     * The frozen params, to pass to `whisper_full()` and friends. Changing its fields has no effect.
+     */
+    public WhisperFullParams.ByValue params() {
+        return params;
+    }
+
+    /**
+     * True for params obtained from {@link #params()} (or {@link #copyOf}), whose native block is not rewritten from
+     * the Java fields before a call.
+     */
+    public static boolean isFrozen(WhisperFullParams params) {
+        return !params.getAutoWrite();
+    }
+
+    /**
+     * A private copy of a frozen params block, made with a native bulk copy. Like the original it is not written
+     * automatically: change fields and then `writeField()` just those. Only valid while the original is reachable,
+     * as pointers (strings, prompt tokens) are shared.
+     */
+    public static WhisperFullParams.ByValue copyOf(WhisperFullParams.ByValue frozen) {
+        int size = frozen.size();
+        WhisperFullParams.ByValue copy = new WhisperFullParams.ByValue(new Memory(size));
+        copy(frozen.getPointer(), copy.getPointer(), size);
+        copy.setAutoWrite(false);
+        copy.setAutoRead(false);
+        return copy;
+    }
+
+    private static void copy(Pointer from, Pointer to, int size) {
+        to.getByteBuffer(0, size).put(from.getByteBuffer(0, size));
+    }
+}
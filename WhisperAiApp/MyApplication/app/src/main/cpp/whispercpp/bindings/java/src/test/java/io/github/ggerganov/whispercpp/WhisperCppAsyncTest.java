@@ -0,0 +1,157 @@
+package io.github.ggerganov.whispercpp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.jna.CallbackReference;
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import io.github.ggerganov.whispercpp.bean.WhisperSegment;
+import io.github.ggerganov.whispercpp.callbacks.GgmlAbortCallback;
+import io.github.ggerganov.whispercpp.params.WhisperFullParams;
+import io.github.ggerganov.whispercpp.params.WhisperParamsTemplate;
+import io.github.ggerganov.whispercpp.params.WhisperSamplingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Checks that the async transcription only completes once whisper_full has returned, against a stub library, so
+ * neither libwhisper nor a model is needed.
+ */
+class WhisperCppAsyncTest {
+    private static final Pointer CTX = new Pointer(1);
+
+    // Proxied instead of WhisperCppJnaLibrary, whose initialisation would load libwhisper for its `instance`
+    private interface StubLibrary extends WhisperCppJnaLibrary {
+    }
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch aborted = new CountDownLatch(1);
+    private volatile CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean nativeRunning;
+    private WhisperParamsTemplate params;
+    private ExecutorService executor;
+    private WhisperCpp whisper;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        // whisper_full polls the abort callback like whisper does, and returns only once release opens
+        WhisperCppJnaLibrary lib = (WhisperCppJnaLibrary) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{StubLibrary.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "whisper_full_default_params_by_ref":
+                            Memory defaults = new Memory(new WhisperFullParams().size());
+                            defaults.clear();
+                            return defaults;
+                        case "whisper_free_params":
+                        case "whisper_reset_timings":
+                            return null;
+                        case "whisper_full":
+                            GgmlAbortCallback abort = (GgmlAbortCallback) CallbackReference.getCallback(
+                                    GgmlAbortCallback.class, ((WhisperFullParams) args[1]).abort_callback);
+                            nativeRunning = true;
+                            started.countDown();
+                            try {
+                                while (!abort.invoke(null)) {
+                                    Thread.sleep(1);
+                                }
+                                aborted.countDown();
+                                release.await();
+                            } finally {
+                                nativeRunning = false;
+                            }
+                            return 1;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        params = WhisperParamsTemplate.create(lib, WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY, null);
+        WhisperResultReader results = (WhisperResultReader) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WhisperResultReader.class}, (proxy, method, args) -> 0);
+        whisper = new WhisperCpp(lib, results, CTX);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void cancelAbortsAndCompletesOnlyAfterTheNativeRunReturns() throws Exception {
+        CompletableFuture<List<WhisperSegment>> future =
+                whisper.fullTranscribeWithTimeAsync(params.params(), new float[16], executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertFalse(future.cancel(true), "a started run cannot be cancelled at once");
+        assertTrue(aborted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(future.isDone(), "whisper_full is still running");
+
+        // Dependents observe the context free again
+        CompletableFuture<Boolean> freed = future.handle((segments, error) -> !nativeRunning);
+        release.countDown();
+        assertTrue(freed.get(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void timeoutAbortsAndFailsOnlyAfterTheNativeRunReturns() throws Exception {
+        CompletableFuture<List<WhisperSegment>> future =
+                whisper.fullTranscribeWithTimeAsync(params.params(), new float[16], executor, 10, TimeUnit.MILLISECONDS);
+        assertTrue(aborted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(future.isDone());
+
+        release.countDown();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertFalse(nativeRunning);
+    }
+
+    @Test
+    void cancelBeforeTheRunStartsSkipsIt() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<List<WhisperSegment>> future =
+                whisper.fullTranscribeWithTimeAsync(params.params(), new float[16], executor);
+
+        assertTrue(future.cancel(false));
+        assertThrows(CancellationException.class, future::join);
+        busy.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, started.getCount(), "whisper_full must not run");
+    }
+
+    @Test
+    void rejectsOverlappingRunsOnOneContext() throws Exception {
+        CompletableFuture<List<WhisperSegment>> future =
+                whisper.fullTranscribeWithTimeAsync(params.params(), new float[16], executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> whisper.fullTranscribe(params.params(), new float[16]));
+
+        future.cancel(true);
+        release.countDown();
+        assertThrows(CancellationException.class, () -> future.get(5, TimeUnit.SECONDS));
+    }
+}
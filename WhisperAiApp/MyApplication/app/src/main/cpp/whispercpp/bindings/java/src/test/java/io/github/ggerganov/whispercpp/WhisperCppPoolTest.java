@@ -0,0 +1,199 @@
+package io.github.ggerganov.whispercpp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import io.github.ggerganov.whispercpp.params.WhisperFullParams;
+import io.github.ggerganov.whispercpp.params.WhisperParamsTemplate;
+import io.github.ggerganov.whispercpp.params.WhisperSamplingStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exercises the state leasing of WhisperCppPool against a stub library, so neither libwhisper nor a model is needed.
+ */
+class WhisperCppPoolTest {
+    private static final Pointer CTX = new Pointer(1);
+
+    // Proxied instead of WhisperCppJnaLibrary, whose initialisation would load libwhisper for its `instance`
+    private interface StubLibrary extends WhisperCppJnaLibrary {
+    }
+
+    private final AtomicInteger statesCreated = new AtomicInteger();
+    private final AtomicInteger statesFreed = new AtomicInteger();
+    private final AtomicInteger contextsFreed = new AtomicInteger();
+    private final Set<Pointer> running = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private WhisperCppJnaLibrary lib;
+    private WhisperParamsTemplate params;
+
+    // whisper_full_with_state records which states run concurrently and blocks until release opens
+    @BeforeEach
+    void setUp() {
+        lib = (WhisperCppJnaLibrary) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{StubLibrary.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "whisper_full_default_params_by_ref":
+                            Memory defaults = new Memory(new WhisperFullParams().size());
+                            defaults.clear();
+                            return defaults;
+                        case "whisper_free_params":
+                            return null;
+                        case "whisper_init_state":
+                            assertEquals(CTX, args[0]);
+                            return new Pointer(100 + statesCreated.incrementAndGet());
+                        case "whisper_full_with_state":
+                            Pointer state = (Pointer) args[1];
+                            assertTrue(running.add(state), "state leased twice");
+                            maxRunning.accumulateAndGet(running.size(), Math::max);
+                            try {
+                                release.await();
+                            } finally {
+                                running.remove(state);
+                            }
+                            return 0;
+                        case "whisper_free_state":
+                            statesFreed.incrementAndGet();
+                            return null;
+                        case "whisper_free":
+                            contextsFreed.incrementAndGet();
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        params = WhisperParamsTemplate.create(lib, WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY, null);
+    }
+
+    private WhisperCppPool newPool(int nStates) {
+        WhisperResultReader results = (WhisperResultReader) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WhisperResultReader.class}, (proxy, method, args) -> 0);
+        return new WhisperCppPool(lib, results, CTX, nStates, params);
+    }
+
+    @Test
+    void leasesDistinctStatesAndBlocksWhenExhausted() throws Exception {
+        WhisperCppPool pool = newPool(2);
+        release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> a = executor.submit(() -> pool.fullTranscribe(new float[16]));
+            Future<?> b = executor.submit(() -> pool.fullTranscribe(new float[16]));
+            Future<?> c = executor.submit(() -> pool.fullTranscribe(new float[16]));
+
+            while (running.size() < 2) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            assertEquals(2, maxRunning.get(), "third call must wait for a free state");
+            assertFalse(c.isDone());
+
+            release.countDown();
+            a.get(5, TimeUnit.SECONDS);
+            b.get(5, TimeUnit.SECONDS);
+            c.get(5, TimeUnit.SECONDS);
+            assertEquals(2, maxRunning.get());
+        } finally {
+            executor.shutdownNow();
+            pool.close();
+        }
+    }
+
+    @Test
+    void closeWaitsForRunningCallsThenFreesOnce() throws Exception {
+        WhisperCppPool pool = newPool(2);
+        release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> call = executor.submit(() -> pool.fullTranscribe(new float[16]));
+            while (running.isEmpty()) {
+                Thread.sleep(5);
+            }
+
+            Thread closer = new Thread(pool::close);
+            closer.start();
+            closer.join(100);
+            assertTrue(closer.isAlive(), "close must wait for the running call");
+            assertEquals(0, contextsFreed.get());
+
+            release.countDown();
+            assertEquals("", call.get(5, TimeUnit.SECONDS));
+            closer.join(5000);
+            assertFalse(closer.isAlive());
+            assertEquals(2, statesFreed.get());
+            assertEquals(1, contextsFreed.get());
+
+            pool.close();
+            assertEquals(1, contextsFreed.get());
+            assertThrows(IllegalStateException.class, () -> pool.fullTranscribe(new float[16]));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void closeWakesCallersWaitingForAState() throws Exception {
+        WhisperCppPool pool = newPool(1);
+        release = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> pool.fullTranscribe(new float[16]));
+            while (running.isEmpty()) {
+                Thread.sleep(5);
+            }
+            Thread waiter = new Thread(() -> {
+                try {
+                    pool.fullTranscribe(new float[16]);
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            waiter.start();
+            awaitParked(waiter);
+
+            Thread closer = new Thread(pool::close);
+            closer.start();
+            // The state comes back only once closed is set, so the waiter cannot take it as a real lease
+            while (!pool.isClosed()) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            closer.join(5000);
+            waiter.join(5000);
+
+            assertFalse(closer.isAlive());
+            assertFalse(waiter.isAlive());
+            assertInstanceOf(IllegalStateException.class, failure.get());
+            assertEquals(1, contextsFreed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsEmptyPool() {
+        assertThrows(IllegalArgumentException.class, () -> newPool(0));
+    }
+
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(thread.isAlive(), "thread ended before blocking");
+            Thread.sleep(1);
+        }
+    }
+}
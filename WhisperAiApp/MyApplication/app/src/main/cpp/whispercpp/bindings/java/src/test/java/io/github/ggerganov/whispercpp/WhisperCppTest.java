@@ -2,18 +2,31 @@ package io.github.ggerganov.whispercpp;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.github.ggerganov.whispercpp.bean.TranscriptionStats;
 import io.github.ggerganov.whispercpp.bean.WhisperSegment;
+import io.github.ggerganov.whispercpp.model.WhisperModelLoader;
 import io.github.ggerganov.whispercpp.params.CBool;
 import io.github.ggerganov.whispercpp.params.WhisperContextParams;
 import io.github.ggerganov.whispercpp.params.WhisperFullParams;
+import io.github.ggerganov.whispercpp.params.WhisperParamsTemplate;
 import io.github.ggerganov.whispercpp.params.WhisperSamplingStrategy;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 class WhisperCppTest {
     private static WhisperCpp whisper = new WhisperCpp();
@@ -144,4 +157,266 @@ class WhisperCppTest {
         }
     }
 
+    @Test
+    void testInitContextFromModelLoader() throws Exception {
+        File model = new File("../../models/ggml-tiny.en.bin");
+        if (!model.exists()) {
+            System.out.println("Model not found, skipping test");
+            return;
+        }
+
+        try (WhisperCpp streamed = new WhisperCpp();
+             InputStream in = new BufferedInputStream(new FileInputStream(model))) {
+            // When
+            streamed.initContext(WhisperModelLoader.fromInputStream(in), streamed.getContextDefaultParams());
+
+            // Then
+            assertNotNull(streamed.getSystemInfo());
+        }
+    }
+
+    @Test
+    void testInitContextFromMappedFile() throws Exception {
+        File model = new File("../../models/ggml-tiny.en.bin");
+        if (!model.exists()) {
+            System.out.println("Model not found, skipping test");
+            return;
+        }
+
+        try (WhisperCpp mapped = new WhisperCpp()) {
+            // When
+            mapped.initContextFromMappedFile(model.toPath());
+
+            // Then
+            assertNotNull(mapped.getSystemInfo());
+        }
+    }
+
+    @Test
+    void testSegmentSink() throws Exception {
+        if (!modelInitialised) {
+            System.out.println("Model not initialised, skipping test");
+            return;
+        }
+
+        // Given
+        File file = new File(System.getProperty("user.dir"), "../../samples/jfk.wav");
+        AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file);
+        WhisperFullParams.ByValue params = whisper.getFullDefaultParams(WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY);
+        params.print_progress = CBool.FALSE;
+        List<WhisperSegment> streamed = new ArrayList<>();
+
+        try (NativeAudioBufferPool pool = new NativeAudioBufferPool(1);
+             NativeAudioBufferPool.Buffer audio = pool.acquire(audioInputStream.available() / 2)) {
+            audio.readPcm16(audioInputStream);
+            whisper.setSegmentSink(streamed::add);
+
+            // When
+            List<WhisperSegment> segments = whisper.fullTranscribeWithTime(params, audio.samples());
+
+            // Then
+            assertEquals(segments.size(), streamed.size());
+            for (int i = 0; i < segments.size(); i++) {
+                assertEquals(segments.get(i).getSentence(), streamed.get(i).getSentence());
+                assertEquals(segments.get(i).getStart(), streamed.get(i).getStart());
+            }
+        } finally {
+            whisper.setSegmentSink(null);
+            audioInputStream.close();
+        }
+    }
+
+    @Test
+    void testPublishSegments() throws Exception {
+        if (!modelInitialised) {
+            System.out.println("Model not initialised, skipping test");
+            return;
+        }
+
+        // Given
+        File file = new File(System.getProperty("user.dir"), "../../samples/jfk.wav");
+        AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file);
+        byte[] b = new byte[audioInputStream.available()];
+        float[] floats = new float[b.length / 2];
+        audioInputStream.read(b);
+        audioInputStream.close();
+        for (int i = 0, j = 0; i < b.length; i += 2, j++) {
+            int intSample = (int) (b[i + 1]) << 8 | (int) (b[i]) & 0xFF;
+            floats[j] = intSample / 32767.0f;
+        }
+        WhisperFullParams.ByValue params = whisper.getFullDefaultParams(WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY);
+        params.print_progress = CBool.FALSE;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<WhisperSegment> segments = new ArrayList<>();
+        CompletableFuture<TranscriptionStats> completed = new CompletableFuture<>();
+        try {
+            // When: one segment is requested at a time
+            whisper.publishSegments(params, floats, executor).subscribe(new WhisperSegmentPublisher.Subscriber() {
+                private WhisperSegmentPublisher.Subscription subscription;
+
+                @Override
+                public void onSubscribe(WhisperSegmentPublisher.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(WhisperSegment segment) {
+                    segments.add(segment);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    completed.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete(TranscriptionStats stats) {
+                    completed.complete(stats);
+                }
+            });
+            TranscriptionStats stats = completed.get(60, TimeUnit.SECONDS);
+
+            // Then
+            assertTrue(segments.size() > 0, "The size of segments should be greater than 0");
+            assertEquals(segments.size(), stats.getSegmentCount());
+            assertTrue(stats.getRealTimeFactor() > 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testFullTranscribeWithTimeAsyncTimesOut() throws Exception {
+        if (!modelInitialised) {
+            System.out.println("Model not initialised, skipping test");
+            return;
+        }
+
+        // Given: ten seconds of silence and a deadline far shorter than the encoder pass
+        float[] floats = new float[WhisperConstants.WHISPER_SAMPLE_RATE * 10];
+        WhisperFullParams.ByValue params = whisper.getFullDefaultParams(WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY);
+        params.print_progress = CBool.FALSE;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // When
+            CompletableFuture<List<WhisperSegment>> future =
+                    whisper.fullTranscribeWithTimeAsync(params, floats, executor, 1, TimeUnit.MILLISECONDS);
+
+            // Then: the future only fails once the aborted run has returned, so the context is free again
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(60, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+            assertNotNull(whisper.fullTranscribe(params, new float[WhisperConstants.WHISPER_SAMPLE_RATE]));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testFullTranscribeWithParamsTemplate() throws Exception {
+        if (!modelInitialised) {
+            System.out.println("Model not initialised, skipping test");
+            return;
+        }
+
+        // Given
+        File file = new File(System.getProperty("user.dir"), "../../samples/jfk.wav");
+        AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file);
+        WhisperParamsTemplate template = WhisperParamsTemplate.create(WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY,
+                params -> {
+                    params.language = "en";
+                    params.print_progress = CBool.FALSE;
+                });
+
+        try (NativeAudioBufferPool pool = new NativeAudioBufferPool(1);
+             NativeAudioBufferPool.Buffer audio = pool.acquire(audioInputStream.available() / 2)) {
+            audio.readPcm16(audioInputStream);
+
+            // When: the same frozen params serve repeated requests
+            String first = whisper.fullTranscribe(template.params(), audio.samples());
+            String second = whisper.fullTranscribe(template.params(), audio.samples());
+
+            // Then
+            assertEquals(first, second);
+            assertTrue(first.contains("ask not what your country can do for you"));
+        } finally {
+            audioInputStream.close();
+        }
+    }
+
+    @Test
+    void testPromptCache() throws Exception {
+        if (!modelInitialised) {
+            System.out.println("Model not initialised, skipping test");
+            return;
+        }
+
+        // Given
+        File file = new File(System.getProperty("user.dir"), "../../samples/jfk.wav");
+        AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file);
+        byte[] b = new byte[audioInputStream.available()];
+        float[] floats = new float[b.length / 2];
+
+        WhisperFullParams.ByValue params = whisper.getFullDefaultParams(WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY);
+        params.print_progress = CBool.FALSE;
+        params.initial_prompt = "And so my fellow Americans.";
+        WhisperPromptCache prompts = new WhisperPromptCache(4);
+        whisper.setPromptCache(prompts);
+
+        try {
+            audioInputStream.read(b);
+            for (int i = 0, j = 0; i < b.length; i += 2, j++) {
+                int intSample = (int) (b[i + 1]) << 8 | (int) (b[i]) & 0xFF;
+                floats[j] = intSample / 32767.0f;
+            }
+
+            // When
+            String first = whisper.fullTranscribe(params, floats);
+            String second = whisper.fullTranscribe(params, floats);
+
+            // Then: tokenized once, and the params are left as they were
+            assertEquals(first, second);
+            assertEquals(1, prompts.missCount());
+            assertEquals(1, prompts.hitCount());
+            assertEquals("And so my fellow Americans.", params.initial_prompt);
+            assertNull(params.prompt_tokens);
+        } finally {
+            whisper.setPromptCache(null);
+            audioInputStream.close();
+        }
+    }
+
+    @Test
+    void testFullTranscribeFromNativeBuffer() throws Exception {
+        if (!modelInitialised) {
+            System.out.println("Model not initialised, skipping test");
+            return;
+        }
+
+        // Given
+        File file = new File(System.getProperty("user.dir"), "../../samples/jfk.wav");
+        AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file);
+        WhisperFullParams.ByValue params = whisper.getFullDefaultParams(WhisperSamplingStrategy.WHISPER_SAMPLING_BEAM_SEARCH);
+        params.print_progress = CBool.FALSE;
+
+        try (NativeAudioBufferPool pool = new NativeAudioBufferPool(1);
+             NativeAudioBufferPool.Buffer audio = pool.acquire(audioInputStream.available() / 2)) {
+            // The samples are decoded straight into native memory
+            audio.readPcm16(audioInputStream);
+
+            // When
+            String result = whisper.fullTranscribe(params, audio.samples());
+
+            // Then
+            assertEquals("And so my fellow Americans ask not what your country can do for you " +
+                    "ask what you can do for your country.",
+                    result.replace(",", ""));
+        } finally {
+            audioInputStream.close();
+        }
+    }
+
 }
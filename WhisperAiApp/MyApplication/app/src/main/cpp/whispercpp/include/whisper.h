@@ -442,7 +442,9 @@ extern "C" {
         float batchd_ms;
         float prompt_ms;
     };
+    // The returned struct must be released with whisper_free_timings()
     WHISPER_API struct whisper_timings * whisper_get_timings(struct whisper_context * ctx);
+    WHISPER_API void whisper_free_timings(struct whisper_timings * timings);
     WHISPER_API void whisper_print_timings(struct whisper_context * ctx);
     WHISPER_API void whisper_reset_timings(struct whisper_context * ctx);
 
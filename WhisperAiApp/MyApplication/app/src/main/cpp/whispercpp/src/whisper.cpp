@@ -4255,6 +4255,12 @@ struct whisper_timings * whisper_get_timings(struct whisper_context * ctx) {
     return timings;
 }
 
+void whisper_free_timings(struct whisper_timings * timings) {
+    if (timings) {
+        delete timings;
+    }
+}
+
 void whisper_print_timings(struct whisper_context * ctx) {
     const int64_t t_end_us = ggml_time_us();
 
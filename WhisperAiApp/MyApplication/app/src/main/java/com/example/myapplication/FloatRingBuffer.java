@@ -0,0 +1,74 @@
+package com.example.myapplication;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer / single-consumer ring of float samples.
+ *
+ * The capture thread is the only writer of {@code writePos} and the transcription thread the only writer
+ * of {@code readPos}; each side publishes its position with an ordered store after touching the data,
+ * so no locks are taken on the audio path. When the consumer falls behind, new samples that do not fit
+ * are dropped (and counted) rather than blocking the capture thread.
+ */
+final class FloatRingBuffer {
+
+    private final float[] data;
+    private final int mask;
+    private final AtomicLong writePos = new AtomicLong();
+    private final AtomicLong readPos = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** @param minCapacity rounded up to a power of two. */
+    FloatRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        data = new float[capacity];
+        mask = capacity - 1;
+    }
+
+    int capacity() {
+        return data.length;
+    }
+
+    /** Producer: converts n PCM16 samples to floats in [-1, 1]. Returns how many fit. */
+    int write(short[] pcm, int n) {
+        long w = writePos.get();
+        int free = data.length - (int) (w - readPos.get());
+        int count = Math.min(n, free);
+        for (int i = 0; i < count; i++) {
+            data[(int) (w + i) & mask] = pcm[i] / 32768.0f;
+        }
+        writePos.lazySet(w + count);
+        if (count < n) {
+            dropped.addAndGet(n - count);
+        }
+        return count;
+    }
+
+    /** Consumer: samples ready to read. */
+    int available() {
+        return (int) (writePos.get() - readPos.get());
+    }
+
+    /** Consumer: copies up to n samples into dst[off..]. Returns the number copied. */
+    int read(float[] dst, int off, int n) {
+        long r = readPos.get();
+        int count = Math.min(n, (int) (writePos.get() - r));
+        int start = (int) r & mask;
+        int first = Math.min(count, data.length - start);
+        System.arraycopy(data, start, dst, off, first);
+        System.arraycopy(data, 0, dst, off + first, count - first);
+        readPos.lazySet(r + count);
+        return count;
+    }
+
+    /** Consumer: discards up to n samples. */
+    void skip(int n) {
+        long r = readPos.get();
+        readPos.lazySet(r + Math.min(n, (int) (writePos.get() - r)));
+    }
+
+    /** Samples the producer had to drop because the ring was full. */
+    long droppedCount() {
+        return dropped.get();
+    }
+}
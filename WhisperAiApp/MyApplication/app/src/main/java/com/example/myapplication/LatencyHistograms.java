@@ -0,0 +1,138 @@
+package com.example.myapplication;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-model latency histograms fed from {@link WhisperTimings}, to see per device whether the encoder or
+ * the decoder dominates and how the real-time factor is distributed.
+ *
+ * Buckets are logarithmic (8 per power of two, ~9% wide) over microseconds, so recording is a lock-free
+ * increment and percentiles are accurate to about one bucket.
+ */
+public final class LatencyHistograms {
+
+    private final Map<String, ModelLatency> models = new ConcurrentHashMap<>();
+
+    public void record(String model, WhisperTimings timings) {
+        ModelLatency latency = models.computeIfAbsent(model, m -> new ModelLatency());
+        latency.wall.record(timings.wallMs());
+        latency.rtf.record(timings.realTimeFactor() * 1000f); // stored as milli-RTF
+        if (timings.hasStageTimings()) {
+            latency.encode.record(timings.encodeMs());
+            latency.decode.record(timings.decodeMs());
+            latency.batchDecode.record(timings.batchDecodeMs());
+            latency.prompt.record(timings.promptMs());
+        }
+    }
+
+    /** One line per model with p50/p90/p99 of each stage, e.g. for logcat. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ModelLatency> e : models.entrySet()) {
+            ModelLatency l = e.getValue();
+            sb.append(e.getKey()).append(": runs=").append(l.wall.count())
+                    .append(" wall ").append(l.wall.describe(1f))
+                    .append(" rtf ").append(l.rtf.describe(1000f))
+                    .append(" encode ").append(l.encode.describe(1f))
+                    .append(" decode ").append(l.decode.describe(1f))
+                    .append(" batchd ").append(l.batchDecode.describe(1f))
+                    .append(" prompt ").append(l.prompt.describe(1f))
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** Histogram for one stage ("wall", "rtf", "encode", "decode", "batchd", "prompt"), or null. */
+    public Histogram get(String model, String stage) {
+        ModelLatency l = models.get(model);
+        if (l == null) {
+            return null;
+        }
+        switch (stage) {
+            case "wall": return l.wall;
+            case "rtf": return l.rtf;
+            case "encode": return l.encode;
+            case "decode": return l.decode;
+            case "batchd": return l.batchDecode;
+            case "prompt": return l.prompt;
+            default: return null;
+        }
+    }
+
+    private static final class ModelLatency {
+        final Histogram wall = new Histogram();
+        final Histogram rtf = new Histogram();
+        final Histogram encode = new Histogram();
+        final Histogram decode = new Histogram();
+        final Histogram batchDecode = new Histogram();
+        final Histogram prompt = new Histogram();
+    }
+
+    /** Log-bucketed histogram of non-negative millisecond values. */
+    public static final class Histogram {
+        private static final int SUB_BUCKETS = 8;  // per power of two
+        private static final int OCTAVES = 40;     // 1 us .. ~12 days
+        private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS * OCTAVES);
+
+        void record(float ms) {
+            if (!(ms >= 0)) {
+                return; // NaN / unavailable
+            }
+            counts.incrementAndGet(bucket((long) (ms * 1000f)));
+        }
+
+        public long count() {
+            long n = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                n += counts.get(i);
+            }
+            return n;
+        }
+
+        /** Value (ms) at the given quantile in [0, 1], as the upper bound of its bucket; NaN when empty. */
+        public float quantile(double q) {
+            long total = count();
+            if (total == 0) {
+                return Float.NaN;
+            }
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= Math.max(1, rank)) {
+                    return upperBoundUs(i) / 1000f;
+                }
+            }
+            return upperBoundUs(counts.length() - 1) / 1000f;
+        }
+
+        String describe(float scale) {
+            if (count() == 0) {
+                return "-";
+            }
+            return String.format(Locale.US, "p50=%.3g p90=%.3g p99=%.3g",
+                    quantile(0.5) / scale, quantile(0.9) / scale, quantile(0.99) / scale);
+        }
+
+        private static int bucket(long us) {
+            if (us < SUB_BUCKETS) {
+                return (int) us;
+            }
+            int octave = 63 - Long.numberOfLeadingZeros(us);           // us in [2^octave, 2^(octave+1))
+            int sub = (int) (us >>> (octave - 3)) & (SUB_BUCKETS - 1);  // next 3 bits
+            return Math.min((octave - 2) * SUB_BUCKETS + sub, SUB_BUCKETS * OCTAVES - 1);
+        }
+
+        private static long upperBoundUs(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket + 1;
+            }
+            int octave = bucket / SUB_BUCKETS + 2;
+            int sub = bucket % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1)) << (octave - 3);
+        }
+    }
+}
@@ -1,65 +1,60 @@
 package com.example.myapplication;
 
+import android.Manifest;
+import android.content.pm.PackageManager;
 import android.os.Bundle;
 import android.util.Log;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
 
-    private long whisperHandle = 0;
+    private static final int REQUEST_RECORD_AUDIO = 101;
+
+    // Fast profile for short clips: greedy, no temperature fallback
+    private static final WhisperParams SHORT_CLIP = new WhisperParams.Builder()
+            .language("en")
+            .temperature(0.0f, 0.0f)
+            .build();
+
+    // Written on the executor, read from the UI thread
+    private volatile long whisperHandle = 0;
+    // Every use of whisperHandle runs on this executor, and the context is freed by its last task
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private volatile boolean destroyed;
+    private volatile StreamingTranscriber liveTranscriber;
+    private volatile TranscriptionTask sampleTranscription;
+    private final LatencyHistograms latency = new LatencyHistograms();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // 1) Copy model from assets to internal storage (only once)
+        // 1) The model is read straight from the APK asset (stored uncompressed), no copy to internal storage
         String modelAssetName = "ggml-small-q5_0.bin";
-        File modelFile = new File(getFilesDir(), modelAssetName);
-
-        if (!modelFile.exists()) {
-            try (InputStream is = getAssets().open(modelAssetName);
-                 OutputStream os = new FileOutputStream(modelFile)) {
-
-                byte[] buf = new byte[1024 * 1024];
-                int r;
-                while ((r = is.read(buf)) != -1) os.write(buf, 0, r);
-                os.flush();
-            } catch (Exception e) {
-                Log.e("WHISPER", "Model copy failed", e);
-            }
-        }
 
-        // 2) Read wav file
-        String wavAssetName = "jfk.wav";
-        File wavFile = new File(getFilesDir(), wavAssetName);
-
-        if (!wavFile.exists()) {
-            try (InputStream is = getAssets().open(wavAssetName);
-                 OutputStream os = new FileOutputStream(wavFile)) {
-
-                byte[] buf = new byte[1024 * 1024];
-                int r;
-                while ((r = is.read(buf)) != -1) os.write(buf, 0, r);
-                os.flush();
-            } catch (Exception e) {
-                Log.e("WHISPER", "WAV copy failed", e);
+        // 2) Init Whisper (put this on background thread too, to avoid ANR)
+        executor.execute(() -> {
+            // Reclaim the copy older versions made in internal storage
+            File staleCopy = new File(getFilesDir(), modelAssetName);
+            if (staleCopy.exists() && !staleCopy.delete()) {
+                Log.w("WHISPER", "Could not delete old model copy " + staleCopy);
             }
-        }
 
-
-        // 3) Init Whisper (put this on background thread too, to avoid ANR)
-        executor.execute(() -> {
-            whisperHandle = WhisperBridge.init(modelFile.getAbsolutePath());
+            if (destroyed) {
+                return;
+            }
+            whisperHandle = WhisperBridge.initFromAsset(getAssets(), modelAssetName);
             Log.d("WHISPER", "init handle=" + whisperHandle);
 
             if (whisperHandle == 0) {
@@ -67,23 +62,105 @@ public class MainActivity extends AppCompatActivity {
                 return;
             }
 
-            // 3) Transcribe a WAV file (CHANGE THIS PATH)
-            String wavPath = wavFile.getAbsolutePath();
+            // 3) Decode the WAV asset in memory and transcribe the PCM directly (no file copy)
+            try (InputStream is = getAssets().open("jfk.wav")) {
+                FloatBuffer pcm = WavDecoder.decode(is);
+                SegmentListener logSegment = (segment, t0Ms, t1Ms) ->
+                        Log.d("WHISPER", "[" + t0Ms + " - " + t1Ms + " ms] " + segment);
+                // Run inline on this executor thread, but cancellable from onDestroy
+                WhisperTimings timings = new WhisperTimings();
+                TranscriptionTask task = new TranscriptionTask(
+                        abortFlag -> WhisperBridge.transcribe(whisperHandle, pcm, SHORT_CLIP, logSegment, timings, abortFlag));
+                sampleTranscription = task;
+                if (destroyed) {
+                    task.cancel(false); // onDestroy may have looked before the task was published
+                }
+                task.run();
+                if (!task.isCancelled()) {
+                    Log.d("WHISPER", "Result: " + task.get());
+                    TranscriptionResult result = WhisperBridge.exportResult(whisperHandle);
+                    Log.d("WHISPER", result.segmentCount() + " segments, " + result.tokenCount() + " tokens");
+                    latency.record(modelAssetName, timings);
+                    Log.d("WHISPER", "Timings: " + timings + "\n" + latency.summary());
+                }
+            } catch (IOException e) {
+                Log.e("WHISPER", "WAV decode failed", e);
+            } catch (ExecutionException | InterruptedException e) {
+                Log.e("WHISPER", "Transcription failed", e);
+            }
 
-            String text = WhisperBridge.transcribeWav(whisperHandle, wavPath);
-            Log.d("WHISPER", "Result: " + text);
+            // 4) Live dictation from the microphone
+            if (ActivityCompat.checkSelfPermission(this, Manifest.permission.RECORD_AUDIO) == PackageManager.PERMISSION_GRANTED) {
+                startLiveTranscription();
+            } else {
+                runOnUiThread(() -> ActivityCompat.requestPermissions(
+                        this, new String[]{Manifest.permission.RECORD_AUDIO}, REQUEST_RECORD_AUDIO));
+            }
         });
     }
 
+    @Override
+    public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == REQUEST_RECORD_AUDIO && grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+            executor.execute(this::startLiveTranscription);
+        } else if (requestCode == REQUEST_RECORD_AUDIO) {
+            Log.w("WHISPER", "Microphone permission denied, live transcription disabled");
+        }
+    }
+
+    // Runs on the executor so it is ordered after init
+    private void startLiveTranscription() {
+        if (destroyed || whisperHandle == 0 || liveTranscriber != null) {
+            return;
+        }
+        liveTranscriber = new StreamingTranscriber(whisperHandle, 3000, 10000, 200, SHORT_CLIP, 0,
+                new StreamingTranscriber.Listener() {
+                    @Override
+                    public void onPartial(String text) {
+                        Log.d("WHISPER", "Live (partial): " + text);
+                    }
+
+                    @Override
+                    public void onCommitted(String text) {
+                        Log.d("WHISPER", "Live: " + text);
+                    }
+                });
+        try {
+            liveTranscriber.start();
+        } catch (IllegalStateException e) {
+            Log.e("WHISPER", "Live transcription failed to start", e);
+            liveTranscriber = null;
+        }
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
 
-        executor.shutdown();
+        // Tasks still queued see this and skip their work
+        destroyed = true;
 
-        if (whisperHandle != 0) {
-            WhisperBridge.free(whisperHandle);
-            whisperHandle = 0;
+        // Makes a running sample transcription return within one decoder step
+        TranscriptionTask task = sampleTranscription;
+        if (task != null) {
+            task.cancel(false);
         }
+
+        // Runs after the task in progress has returned, so nothing still uses the context when it is freed.
+        // The live transcriber's threads are joined here too, off the UI thread.
+        executor.execute(() -> {
+            StreamingTranscriber live = liveTranscriber;
+            liveTranscriber = null;
+            if (live != null) {
+                live.close();
+            }
+            long handle = whisperHandle;
+            whisperHandle = 0;
+            if (handle != 0) {
+                WhisperBridge.free(handle);
+            }
+        });
+        executor.shutdown();
     }
 }
@@ -0,0 +1,18 @@
+package com.example.myapplication;
+
+/**
+ * Receives transcription segments as soon as whisper decodes them, instead of waiting for the whole input.
+ *
+ * Called on the transcribing thread while decoding is paused, so implementations should only hand the
+ * segment off (e.g. post to a Handler or offer to a queue). An exception thrown here stops the transcription
+ * and is rethrown from the transcribe call.
+ */
+public interface SegmentListener {
+
+    /**
+     * @param text segment text.
+     * @param t0Ms segment start, in milliseconds from the start of the input.
+     * @param t1Ms segment end, in milliseconds from the start of the input.
+     */
+    void onSegment(String text, long t0Ms, long t1Ms);
+}
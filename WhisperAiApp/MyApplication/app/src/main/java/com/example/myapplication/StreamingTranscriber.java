@@ -0,0 +1,234 @@
+package com.example.myapplication;
+
+import android.annotation.SuppressLint;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaRecorder;
+import android.util.Log;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Live microphone transcription modelled on whisper.cpp's examples/stream (sliding-window mode).
+ *
+ * A capture thread feeds 16 kHz PCM from AudioRecord into a lock-free ring buffer. The transcription
+ * thread takes {@code stepMs} of new audio at a time, prepends up to {@code lengthMs + keepMs} of the
+ * previous window, and decodes that window as a single segment on its own whisper_state. The hypothesis
+ * is reported as partial text until {@code lengthMs / stepMs - 1} steps have passed; then it is committed,
+ * only {@code keepMs} of audio is carried over, and its tokens become the prompt for the next windows so
+ * consecutive windows stay consistent.
+ *
+ * If decoding falls behind by more than a step, the oldest pending audio is skipped to keep latency bounded.
+ * If capture fails, the audio already captured is transcribed and the transcription thread ends.
+ * Requires the RECORD_AUDIO permission.
+ */
+public class StreamingTranscriber implements AutoCloseable {
+
+    private static final String TAG = "WHISPER";
+    private static final int SAMPLE_RATE = 16000;
+
+    /** Callbacks run on the transcription thread. */
+    public interface Listener {
+        /** Current, still changing hypothesis for the active window. */
+        void onPartial(String text);
+
+        /** Final text of a window; will not change any more. */
+        void onCommitted(String text);
+    }
+
+    private final long whisperHandle;
+    private final WhisperParams params;
+    private final int nThreads;
+    private final Listener listener;
+
+    private final int nStep;
+    private final int nLen;
+    private final int nKeep;
+    private final int stepsPerCommit;
+
+    private final FloatRingBuffer ring;
+    private final StringBuilder committed = new StringBuilder();
+
+    private volatile boolean running;
+    private volatile boolean captureEnded;
+    private Thread captureThread;
+    private Thread transcribeThread;
+
+    /**
+     * @param whisperHandle context from {@link WhisperBridge#init(String)}; must outlive this transcriber.
+     * @param stepMs audio consumed per decode (e.g. 3000).
+     * @param lengthMs window length decoded each step (e.g. 10000), at least stepMs.
+     * @param keepMs audio carried over from a committed window (e.g. 200).
+     * @param nThreads whisper threads; 0 for the library default.
+     */
+    public StreamingTranscriber(long whisperHandle, int stepMs, int lengthMs, int keepMs, int nThreads, Listener listener) {
+        this(whisperHandle, stepMs, lengthMs, keepMs, null, nThreads, listener);
+    }
+
+    /**
+     * As {@link #StreamingTranscriber(long, int, int, int, int, Listener)}, decoding with the given profile
+     * (language, threads, sampling). Single-segment decoding and prompt carry-over always apply; null uses
+     * the defaults without temperature fallback. The params must stay open while this transcriber runs.
+     */
+    public StreamingTranscriber(long whisperHandle, int stepMs, int lengthMs, int keepMs, WhisperParams params,
+                                int nThreads, Listener listener) {
+        if (stepMs <= 0 || lengthMs < stepMs || keepMs < 0 || keepMs > stepMs) {
+            throw new IllegalArgumentException("Require 0 < stepMs <= lengthMs and 0 <= keepMs <= stepMs");
+        }
+        this.whisperHandle = whisperHandle;
+        this.params = params;
+        this.nThreads = nThreads;
+        this.listener = listener;
+        nStep = SAMPLE_RATE * stepMs / 1000;
+        nLen = SAMPLE_RATE * lengthMs / 1000;
+        nKeep = SAMPLE_RATE * keepMs / 1000;
+        stepsPerCommit = Math.max(1, lengthMs / stepMs - 1);
+        // Room for a couple of steps of backlog before the producer starts dropping
+        ring = new FloatRingBuffer(4 * nStep);
+    }
+
+    /** Text committed so far. */
+    public synchronized String getCommittedText() {
+        return committed.toString();
+    }
+
+    @SuppressLint("MissingPermission")
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        int minBuffer = AudioRecord.getMinBufferSize(SAMPLE_RATE, AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT);
+        if (minBuffer == AudioRecord.ERROR_BAD_VALUE || minBuffer == AudioRecord.ERROR) {
+            throw new IllegalStateException("Unsupported AudioRecord configuration");
+        }
+        AudioRecord recorder = new AudioRecord(MediaRecorder.AudioSource.MIC, SAMPLE_RATE,
+                AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT, Math.max(minBuffer, SAMPLE_RATE / 5 * 2));
+        if (recorder.getState() != AudioRecord.STATE_INITIALIZED) {
+            recorder.release();
+            throw new IllegalStateException("AudioRecord failed to initialize");
+        }
+        long session = WhisperBridge.streamOpen(whisperHandle);
+        if (session == 0) {
+            recorder.release();
+            throw new IllegalStateException("Whisper streaming state init failed");
+        }
+
+        long paramsHandle = WhisperParams.handleOf(params);
+        running = true;
+        captureEnded = false;
+        captureThread = new Thread(() -> capture(recorder), "whisper-capture");
+        transcribeThread = new Thread(() -> transcribe(session, paramsHandle), "whisper-stream");
+        captureThread.start();
+        transcribeThread.start();
+    }
+
+    private void capture(AudioRecord recorder) {
+        short[] chunk = new short[SAMPLE_RATE / 10]; // 100 ms reads
+        try {
+            recorder.startRecording();
+            while (running) {
+                int n = recorder.read(chunk, 0, chunk.length);
+                if (n > 0) {
+                    ring.write(chunk, n);
+                } else if (n < 0) {
+                    Log.e(TAG, "AudioRecord read failed: " + n);
+                    break;
+                }
+            }
+        } finally {
+            captureEnded = true;
+            recorder.stop();
+            recorder.release();
+        }
+    }
+
+    private void transcribe(long session, long paramsHandle) {
+        float[] window = new float[nKeep + nLen];
+        float[] previous = new float[nKeep + nLen];
+        int previousLen = 0;
+        int iteration = 0;
+        try {
+            while (running) {
+                int available = ring.available();
+                if (available < nStep) {
+                    if (captureEnded && available == 0) {
+                        Log.w(TAG, "Audio capture stopped, ending live transcription");
+                        break;
+                    }
+                    if (!captureEnded) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                        continue;
+                    }
+                    // Capture is over: decode the remaining partial step as a final, committed window
+                }
+                if (available > 2 * nStep) {
+                    Log.w(TAG, "Transcription is falling behind, skipping " + (available - nStep) + " samples");
+                    ring.skip(available - nStep);
+                }
+
+                // window = tail of the previous window + one step of new audio
+                int take = Math.min(previousLen, Math.max(0, nKeep + nLen - nStep));
+                System.arraycopy(previous, previousLen - take, window, 0, take);
+                int length = take + ring.read(window, take, nStep);
+
+                boolean commit = ++iteration % stepsPerCommit == 0 || (captureEnded && ring.available() == 0);
+                String text = WhisperBridge.streamStep(session, window, length, paramsHandle, nThreads, commit);
+                if (text.startsWith("ERROR:")) {
+                    Log.e(TAG, text);
+                    continue;
+                }
+
+                if (commit) {
+                    synchronized (this) {
+                        committed.append(text);
+                    }
+                    listener.onCommitted(text);
+                    // Only keepMs of audio carries over; the tokens carry the context
+                    int carry = Math.min(nKeep, length);
+                    System.arraycopy(window, length - carry, previous, 0, carry);
+                    previousLen = carry;
+                } else {
+                    listener.onPartial(text);
+                    float[] swap = previous;
+                    previous = window;
+                    window = swap;
+                    previousLen = length;
+                }
+            }
+        } finally {
+            WhisperBridge.streamClose(session);
+        }
+    }
+
+    /** Stops capture and waits for the in-flight window to finish. */
+    @Override
+    public void close() {
+        Thread capture;
+        Thread transcribe;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            capture = captureThread;
+            transcribe = transcribeThread;
+        }
+        boolean interrupted = false;
+        for (Thread t : new Thread[]{capture, transcribe}) {
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (ring.droppedCount() > 0) {
+            Log.w(TAG, "Dropped " + ring.droppedCount() + " samples while streaming");
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.myapplication;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * All segments and tokens of one transcription, exported by native code in a single JNI call
+ * (see {@link WhisperBridge#exportResult(long)}) instead of one crossing and one String per segment.
+ *
+ * Data is kept in flat primitive arrays: segment i spans text bytes [textOffsets[i], textOffsets[i + 1])
+ * of the UTF-8 blob and tokens [tokenOffsets[i], tokenOffsets[i + 1]). Times are in milliseconds;
+ * token times are only meaningful when token-level timestamps were computed.
+ */
+public final class TranscriptionResult {
+
+    private final long[] segmentT0;
+    private final long[] segmentT1;
+    private final int[] textOffsets;
+    private final byte[] text;
+    private final int[] tokenOffsets;
+    private final int[] tokenIds;
+    private final float[] tokenProbabilities;
+    private final long[] tokenT0;
+    private final long[] tokenT1;
+
+    // Called from native-lib.cpp (export_result); keep the signature in sync with g_resultInit
+    TranscriptionResult(long[] segmentT0, long[] segmentT1, int[] textOffsets, byte[] text,
+                        int[] tokenOffsets, int[] tokenIds, float[] tokenProbabilities, long[] tokenT0, long[] tokenT1) {
+        this.segmentT0 = segmentT0;
+        this.segmentT1 = segmentT1;
+        this.textOffsets = textOffsets;
+        this.text = text;
+        this.tokenOffsets = tokenOffsets;
+        this.tokenIds = tokenIds;
+        this.tokenProbabilities = tokenProbabilities;
+        this.tokenT0 = tokenT0;
+        this.tokenT1 = tokenT1;
+    }
+
+    public int segmentCount() {
+        return segmentT0.length;
+    }
+
+    public long segmentStartMs(int segment) {
+        return segmentT0[segment];
+    }
+
+    public long segmentEndMs(int segment) {
+        return segmentT1[segment];
+    }
+
+    /** Decodes one segment's text from the shared UTF-8 blob. */
+    public String segmentText(int segment) {
+        int from = textOffsets[segment];
+        return new String(text, from, textOffsets[segment + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    /** The whole transcript, decoded once from the blob. */
+    public String text() {
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    /** Total number of tokens over all segments. */
+    public int tokenCount() {
+        return tokenIds.length;
+    }
+
+    /** Index of the segment's first token in the token arrays. */
+    public int firstToken(int segment) {
+        return tokenOffsets[segment];
+    }
+
+    /** Number of tokens in the segment. */
+    public int tokenCount(int segment) {
+        return tokenOffsets[segment + 1] - tokenOffsets[segment];
+    }
+
+    public int tokenId(int token) {
+        return tokenIds[token];
+    }
+
+    public float tokenProbability(int token) {
+        return tokenProbabilities[token];
+    }
+
+    public long tokenStartMs(int token) {
+        return tokenT0[token];
+    }
+
+    public long tokenEndMs(int token) {
+        return tokenT1[token];
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.myapplication;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A transcription future that can actually be stopped: {@link #cancel(boolean)} raises a native abort flag
+ * that whisper polls from abort_callback (during graph computation) and encoder_begin_callback, so the
+ * running decode returns within one step instead of finishing the whole input.
+ *
+ * The native flag is created when the task starts running and freed when it finishes, so a task that is
+ * never run holds no native memory.
+ */
+public class TranscriptionTask extends FutureTask<String> {
+
+    /** The transcription body; it must pass the given flag to the native call. */
+    public interface Job {
+        String run(long abortFlag) throws Exception;
+    }
+
+    // Guarded by its own monitor: the flag must not be freed while cancel() raises it
+    private static final class AbortState {
+        long flag;
+        boolean aborted;
+    }
+
+    private final AbortState abortState;
+
+    public TranscriptionTask(Job job) {
+        this(job, new AbortState());
+    }
+
+    private TranscriptionTask(Job job, AbortState state) {
+        super(() -> {
+            long flag;
+            synchronized (state) {
+                if (state.aborted) {
+                    throw new CancellationException();
+                }
+                flag = WhisperBridge.newAbortFlag();
+                state.flag = flag;
+            }
+            try {
+                return job.run(flag);
+            } finally {
+                synchronized (state) {
+                    state.flag = 0;
+                    WhisperBridge.freeAbortFlag(flag);
+                }
+            }
+        });
+        abortState = state;
+    }
+
+    /** Also stops a run in progress; mayInterruptIfRunning is not needed for that. */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            synchronized (abortState) {
+                abortState.aborted = true;
+                if (abortState.flag != 0) {
+                    WhisperBridge.abort(abortState.flag);
+                }
+            }
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.myapplication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Decodes a PCM WAV (e.g. an asset stream) into a direct 16 kHz mono float buffer that can be handed
+ * to {@link WhisperBridge#transcribe(long, FloatBuffer)} without touching the file system.
+ */
+public final class WavDecoder {
+
+    private static final int TARGET_RATE = 16000;
+    private static final int FORMAT_PCM = 0x0001;
+    private static final int FORMAT_FLOAT = 0x0003;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private WavDecoder() {
+    }
+
+    /**
+     * Walks the RIFF chunks to find "fmt " and "data" (so LIST/INFO chunks before the samples are skipped)
+     * and converts 16-bit PCM or 32-bit float samples to 16 kHz mono floats in [-1, 1], averaging the channels
+     * and resampling linearly from other rates, as the native wav_reader does.
+     */
+    public static FloatBuffer decode(InputStream in) throws IOException {
+        ByteBuffer wav = ByteBuffer.wrap(readAll(in)).order(ByteOrder.LITTLE_ENDIAN);
+        if (wav.remaining() < 12 || wav.getInt(0) != 0x46464952 /* RIFF */ || wav.getInt(8) != 0x45564157 /* WAVE */) {
+            throw new IOException("Not a RIFF/WAVE stream");
+        }
+
+        int format = 0;
+        int channels = 0;
+        int rate = 0;
+        int blockAlign = 0;
+        int bitsPerSample = 0;
+        boolean haveFmt = false;
+        long pos = 12;
+        while (pos + 8 <= wav.limit()) {
+            int id = wav.getInt((int) pos);
+            long size = wav.getInt((int) pos + 4) & 0xFFFFFFFFL; // chunk sizes are unsigned
+            int body = (int) pos + 8;
+            int available = wav.limit() - body;
+            if (id == 0x20746d66 /* "fmt " */ && size >= 16 && available >= 16) {
+                format = wav.getShort(body) & 0xFFFF;
+                channels = wav.getShort(body + 2) & 0xFFFF;
+                rate = wav.getInt(body + 4);
+                blockAlign = wav.getShort(body + 12) & 0xFFFF;
+                bitsPerSample = wav.getShort(body + 14) & 0xFFFF;
+                // WAVE_FORMAT_EXTENSIBLE: the real format is the first two bytes of the SubFormat GUID
+                if (format == FORMAT_EXTENSIBLE && size >= 40 && available >= 40) {
+                    format = wav.getShort(body + 24) & 0xFFFF;
+                }
+                haveFmt = true;
+            } else if (id == 0x61746164 /* "data" */) {
+                if (!haveFmt) {
+                    throw new IOException("WAV has no fmt chunk before the data");
+                }
+                // Streaming writers leave 0 / 0xFFFFFFFF here; trust the stream length instead
+                int bytes = size == 0 || size > available ? available : (int) size;
+                return toMono16k(wav, body, bytes, format, channels, rate, blockAlign, bitsPerSample);
+            }
+            pos = body + size + (size & 1); // chunks are word aligned
+        }
+        throw new IOException("WAV has no data chunk");
+    }
+
+    private static FloatBuffer toMono16k(ByteBuffer wav, int offset, int bytes, int format, int channels, int rate,
+                                         int blockAlign, int bitsPerSample) throws IOException {
+        boolean pcm16 = format == FORMAT_PCM && bitsPerSample == 16;
+        boolean float32 = format == FORMAT_FLOAT && bitsPerSample == 32;
+        if (!pcm16 && !float32) {
+            throw new IOException("Only 16-bit PCM and 32-bit float are supported (format=" + format
+                    + ", bits=" + bitsPerSample + ")");
+        }
+        int sampleBytes = bitsPerSample / 8;
+        if (channels < 1 || rate <= 0 || blockAlign < channels * sampleBytes) {
+            throw new IOException("Invalid WAV format (channels=" + channels + ", rate=" + rate
+                    + ", blockAlign=" + blockAlign + ")");
+        }
+
+        // One pass: convert and average the channels of each frame
+        int frames = bytes / blockAlign;
+        float[] mono = new float[frames];
+        float gain = (pcm16 ? 1.0f / 32768.0f : 1.0f) / channels;
+        for (int i = 0; i < frames; i++) {
+            int frame = offset + i * blockAlign;
+            float acc = 0.0f;
+            for (int c = 0; c < channels; c++) {
+                int at = frame + c * sampleBytes;
+                acc += pcm16 ? wav.getShort(at) : wav.getFloat(at);
+            }
+            mono[i] = acc * gain;
+        }
+
+        float[] samples = rate == TARGET_RATE ? mono : resampleLinear(mono, rate);
+        FloatBuffer pcm = ByteBuffer.allocateDirect(samples.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        pcm.put(samples).clear();
+        return pcm;
+    }
+
+    // Linear interpolation to 16 kHz; good enough for speech, which whisper band-limits anyway
+    static float[] resampleLinear(float[] in, int rate) {
+        if (in.length == 0) {
+            return in;
+        }
+        int nOut = (int) ((long) in.length * TARGET_RATE / rate);
+        float[] out = new float[nOut];
+        double step = (double) rate / TARGET_RATE;
+        int last = in.length - 1;
+        for (int i = 0; i < nOut; i++) {
+            double pos = i * step;
+            int j = (int) pos;
+            if (j >= last) {
+                out[i] = in[last];
+                continue;
+            }
+            float frac = (float) (pos - j);
+            out[i] = in[j] + (in[j + 1] - in[j]) * frac;
+        }
+        return out;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 8192));
+        byte[] buf = new byte[64 * 1024];
+        int r;
+        while ((r = in.read(buf)) != -1) out.write(buf, 0, r);
+        return out.toByteArray();
+    }
+}
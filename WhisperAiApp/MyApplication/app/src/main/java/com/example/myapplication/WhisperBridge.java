@@ -1,11 +1,151 @@
 package com.example.myapplication;
 
+import android.content.res.AssetManager;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.Executor;
+
 public class WhisperBridge {
     static {
         System.loadLibrary("native-lib");
     }
 
     public static native long init(String modelPath);
+
+    /**
+     * Loads a ggml model directly from the APK through a whisper_model_loader over AAssetManager,
+     * so no copy in internal storage is needed. The asset should be stored uncompressed (noCompress).
+     * @return context handle, or 0 on failure.
+     */
+    public static native long initFromAsset(AssetManager assets, String assetName);
     public static native void free(long handle);
     public static native String transcribeWav(long handle, String wavPath);
+
+    /**
+     * Transcribes 16 kHz mono float PCM in [-1, 1] straight from memory (no WAV file round-trip).
+     * The samples between position and limit are used; the buffer position is not changed.
+     * A direct buffer is read in place by native code, so it must be in native byte order.
+     */
+    public static String transcribe(long handle, FloatBuffer pcm) {
+        return transcribe(handle, pcm, null);
+    }
+
+    /**
+     * Same as {@link #transcribe(long, FloatBuffer)}, additionally streaming each segment to the listener
+     * as soon as it is decoded. Still returns the full text at the end.
+     */
+    public static String transcribe(long handle, FloatBuffer pcm, SegmentListener listener) {
+        return transcribe(handle, pcm, null, listener, null, 0);
+    }
+
+    /** As {@link #transcribe(long, FloatBuffer, SegmentListener)} with explicit decoding options (null = defaults). */
+    public static String transcribe(long handle, FloatBuffer pcm, WhisperParams params, SegmentListener listener) {
+        return transcribe(handle, pcm, params, listener, null, 0);
+    }
+
+    /** As {@link #transcribe(long, FloatBuffer, WhisperParams, SegmentListener)}, filling timingsOut (if non-null) after the run. */
+    public static String transcribe(long handle, FloatBuffer pcm, WhisperParams params, SegmentListener listener,
+                                    WhisperTimings timingsOut) {
+        return transcribe(handle, pcm, params, listener, timingsOut, 0);
+    }
+
+    /** Transcribes pcm[offset, offset + length) of 16 kHz mono float PCM. */
+    public static String transcribe(long handle, float[] pcm, int offset, int length) {
+        return transcribe(handle, pcm, offset, length, null, null);
+    }
+
+    /** Transcribes pcm[offset, offset + length), streaming segments to the listener as they are decoded. */
+    public static String transcribe(long handle, float[] pcm, int offset, int length, SegmentListener listener) {
+        return transcribe(handle, pcm, offset, length, null, listener);
+    }
+
+    /** As {@link #transcribe(long, float[], int, int, SegmentListener)} with explicit decoding options (null = defaults). */
+    public static String transcribe(long handle, float[] pcm, int offset, int length, WhisperParams params,
+                                    SegmentListener listener) {
+        return transcribeArray(handle, pcm, offset, length, WhisperParams.handleOf(params), listener, 0, null);
+    }
+
+    /**
+     * Starts transcribing on the executor and returns a future whose {@link TranscriptionTask#cancel(boolean)}
+     * makes the native run give up at its next abort check (within one decoder step), freeing the core.
+     * The buffer must not be modified until the task completes.
+     */
+    public static TranscriptionTask transcribeAsync(Executor executor, long handle, FloatBuffer pcm, WhisperParams params,
+                                                    SegmentListener listener) {
+        return transcribeAsync(executor, handle, pcm, params, listener, null);
+    }
+
+    /** As {@link #transcribeAsync(Executor, long, FloatBuffer, WhisperParams, SegmentListener)}, filling timingsOut when done. */
+    public static TranscriptionTask transcribeAsync(Executor executor, long handle, FloatBuffer pcm, WhisperParams params,
+                                                    SegmentListener listener, WhisperTimings timingsOut) {
+        TranscriptionTask task = new TranscriptionTask(
+                abortFlag -> transcribe(handle, pcm, params, listener, timingsOut, abortFlag));
+        executor.execute(task);
+        return task;
+    }
+
+    static String transcribe(long handle, FloatBuffer pcm, WhisperParams params, SegmentListener listener,
+                             WhisperTimings timingsOut, long abortFlag) {
+        long paramsHandle = WhisperParams.handleOf(params);
+        float[] timings = WhisperTimings.arrayOf(timingsOut);
+        if (pcm.isDirect()) {
+            checkDirect(pcm);
+            return transcribeBuffer(handle, pcm, pcm.position(), pcm.remaining(), paramsHandle, listener, abortFlag, timings);
+        }
+        if (pcm.hasArray()) {
+            return transcribeArray(handle, pcm.array(), pcm.arrayOffset() + pcm.position(), pcm.remaining(), paramsHandle,
+                    listener, abortFlag, timings);
+        }
+        throw new IllegalArgumentException("PCM buffer must be direct or array-backed");
+    }
+
+    /**
+     * All segments and tokens of the handle's last transcription in one native call. Only valid until the
+     * next transcription on the same handle, so call it from the thread that ran the transcription.
+     */
+    public static native TranscriptionResult exportResult(long handle);
+
+    static void checkDirect(FloatBuffer pcm) {
+        if (pcm.order() != ByteOrder.nativeOrder()) {
+            throw new IllegalArgumentException("Direct PCM buffer must use native byte order");
+        }
+    }
+
+    private static native String transcribeBuffer(long handle, FloatBuffer pcm, int offset, int length, long paramsHandle,
+                                                  SegmentListener listener, long abortFlag, float[] timingsOut);
+    private static native String transcribeArray(long handle, float[] pcm, int offset, int length, long paramsHandle,
+                                                 SegmentListener listener, long abortFlag, float[] timingsOut);
+
+    // ---- Cached whisper_full_params (see WhisperParams) ----
+
+    static native long createParams(boolean beamSearch, int nThreads, int beamSize, int bestOf, int audioCtx, int maxTokens,
+                                    boolean noContext, boolean singleSegment, float temperature, float temperatureInc,
+                                    String language);
+    static native void freeParams(long paramsHandle);
+
+    // ---- Abort flags (see TranscriptionTask): checked by abort_callback / encoder_begin_callback ----
+
+    static native long newAbortFlag();
+    static native void abort(long flag);
+    static native void freeAbortFlag(long flag);
+
+    // ---- State pool (see WhisperStatePool): one model, N whisper_states ----
+
+    static native long initPool(String modelPath, int nStates);
+    static native long initPoolFromAsset(AssetManager assets, String assetName, int nStates);
+    static native void freePool(long pool);
+    static native TranscriptionResult exportPoolResult(long pool, int stateIndex);
+    static native String transcribePool(long pool, int stateIndex, int nThreads, float[] pcm, int offset, int length,
+                                        long paramsHandle, SegmentListener listener, long abortFlag, float[] timingsOut);
+    static native String transcribePoolBuffer(long pool, int stateIndex, int nThreads, FloatBuffer pcm, int offset, int length,
+                                              long paramsHandle, SegmentListener listener, long abortFlag,
+                                              float[] timingsOut);
+
+    // ---- Live streaming session (see StreamingTranscriber) ----
+
+    static native long streamOpen(long handle);
+    static native void streamClose(long session);
+    static native String streamStep(long session, float[] window, int length, long paramsHandle, int nThreads,
+                                    boolean commit);
 }
@@ -0,0 +1,185 @@
+package com.example.myapplication;
+
+/**
+ * Decoding options for whisper_full, e.g. a fast profile for short clips and an accurate one for archives.
+ *
+ * Instances are immutable and marshalled into a native whisper_full_params exactly once, on first use;
+ * every run afterwards only copies that cached struct. Keep profiles around and reuse them, and
+ * {@link #close()} them when no longer needed (not while a transcription using them is running).
+ */
+public final class WhisperParams implements AutoCloseable {
+
+    public enum Strategy { GREEDY, BEAM_SEARCH }
+
+    /** Library defaults (whisper_full_default_params): greedy, English, no context carry-over, temperature fallback enabled. */
+    public static final WhisperParams DEFAULT = new Builder().build();
+
+    public final Strategy strategy;
+    public final int nThreads;
+    public final int beamSize;
+    public final int bestOf;
+    public final int audioCtx;
+    public final int maxTokens;
+    public final boolean noContext;
+    public final boolean singleSegment;
+    public final float temperature;
+    public final float temperatureInc;
+    public final String language;
+
+    private long nativeHandle;
+    private boolean closed;
+
+    private WhisperParams(Builder b) {
+        strategy = b.strategy;
+        nThreads = b.nThreads;
+        beamSize = b.beamSize;
+        bestOf = b.bestOf;
+        audioCtx = b.audioCtx;
+        maxTokens = b.maxTokens;
+        noContext = b.noContext;
+        singleSegment = b.singleSegment;
+        temperature = b.temperature;
+        temperatureInc = b.temperatureInc;
+        language = b.language;
+    }
+
+    /** Native whisper_full_params handle, created on first call and cached. */
+    synchronized long nativeHandle() {
+        if (closed) {
+            throw new IllegalStateException("WhisperParams is closed");
+        }
+        if (nativeHandle == 0) {
+            nativeHandle = WhisperBridge.createParams(strategy == Strategy.BEAM_SEARCH, nThreads, beamSize, bestOf,
+                    audioCtx, maxTokens, noContext, singleSegment, temperature, temperatureInc, language);
+        }
+        return nativeHandle;
+    }
+
+    /** 0 for null, so callers can pass optional params straight to native code. */
+    static long handleOf(WhisperParams params) {
+        return params == null ? 0 : params.nativeHandle();
+    }
+
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.strategy = strategy;
+        b.nThreads = nThreads;
+        b.beamSize = beamSize;
+        b.bestOf = bestOf;
+        b.audioCtx = audioCtx;
+        b.maxTokens = maxTokens;
+        b.noContext = noContext;
+        b.singleSegment = singleSegment;
+        b.temperature = temperature;
+        b.temperatureInc = temperatureInc;
+        b.language = language;
+        return b;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this == DEFAULT || closed) {
+            return;
+        }
+        closed = true;
+        if (nativeHandle != 0) {
+            WhisperBridge.freeParams(nativeHandle);
+            nativeHandle = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WhisperParams{" + strategy + ", threads=" + nThreads + ", beam=" + beamSize + ", bestOf=" + bestOf
+                + ", audioCtx=" + audioCtx + ", maxTokens=" + maxTokens + ", noContext=" + noContext
+                + ", singleSegment=" + singleSegment + ", temperature=" + temperature + "+" + temperatureInc
+                + ", language=" + language + "}";
+    }
+
+    public static final class Builder {
+        private Strategy strategy = Strategy.GREEDY;
+        private int nThreads;
+        private int beamSize;
+        private int bestOf;
+        private int audioCtx;
+        private int maxTokens;
+        private boolean noContext = true; // as whisper_full_default_params
+        private boolean singleSegment;
+        private float temperature = 0.0f;
+        private float temperatureInc = 0.2f;
+        private String language = "en";
+
+        public Builder strategy(Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /** Worker threads; 0 keeps the library default (or the pool's per-state share). */
+        public Builder threads(int nThreads) {
+            this.nThreads = nThreads;
+            return this;
+        }
+
+        /** Beams for {@link Strategy#BEAM_SEARCH}; 0 keeps the library default. */
+        public Builder beamSize(int beamSize) {
+            this.beamSize = beamSize;
+            return this;
+        }
+
+        /** Candidates sampled per fallback step with {@link Strategy#GREEDY}; 0 keeps the library default. */
+        public Builder bestOf(int bestOf) {
+            this.bestOf = bestOf;
+            return this;
+        }
+
+        /** Encoder context in frames (max 1500 = 30 s); smaller is faster on short clips. 0 = full. */
+        public Builder audioCtx(int audioCtx) {
+            this.audioCtx = audioCtx;
+            return this;
+        }
+
+        /** Max tokens per segment; 0 = no limit. */
+        public Builder maxTokens(int maxTokens) {
+            this.maxTokens = maxTokens;
+            return this;
+        }
+
+        /** Do not condition each window on the previous window's text (the default); false enables context carry-over. */
+        public Builder noContext(boolean noContext) {
+            this.noContext = noContext;
+            return this;
+        }
+
+        /** Force the output into a single segment. */
+        public Builder singleSegment(boolean singleSegment) {
+            this.singleSegment = singleSegment;
+            return this;
+        }
+
+        /**
+         * Initial sampling temperature and the step used when a decode fails the quality checks;
+         * an increment of 0 disables the fallback re-decodes (faster, less robust).
+         */
+        public Builder temperature(float temperature, float increment) {
+            this.temperature = temperature;
+            this.temperatureInc = increment;
+            return this;
+        }
+
+        /** ISO language code such as "en", or "auto" to detect it. */
+        public Builder language(String language) {
+            if (language == null || language.isEmpty()) {
+                throw new IllegalArgumentException("language must not be empty");
+            }
+            this.language = language;
+            return this;
+        }
+
+        public WhisperParams build() {
+            if (nThreads < 0 || beamSize < 0 || bestOf < 0 || audioCtx < 0 || maxTokens < 0) {
+                throw new IllegalArgumentException("Counts must be >= 0");
+            }
+            return new WhisperParams(this);
+        }
+    }
+}
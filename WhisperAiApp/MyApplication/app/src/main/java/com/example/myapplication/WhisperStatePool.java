@@ -0,0 +1,242 @@
+package com.example.myapplication;
+
+import android.content.res.AssetManager;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads the Whisper model once and keeps N independent whisper_states on top of it, so up to N
+ * transcriptions run concurrently while only one copy of the weights is in memory.
+ *
+ * Each call leases a free state for its duration (blocking while all are busy) and returns it afterwards,
+ * so instances can be shared freely between threads.
+ */
+public class WhisperStatePool implements AutoCloseable {
+
+    private final long pool;
+    private final int size;
+    private final int threadsPerState;
+    private final BlockingQueue<Integer> freeStates;
+    private volatile boolean closed;
+
+    // Optional per-model latency telemetry, see recordLatency
+    private volatile LatencyHistograms latency;
+    private volatile String latencyModel;
+
+    // Handed to callers still blocked in lease() once the pool is freed
+    private static final int CLOSED_MARKER = -1;
+
+    /**
+     * @param nStates number of concurrent transcriptions.
+     * @param threadsPerState whisper threads per transcription; 0 splits the available cores evenly between the states.
+     */
+    public WhisperStatePool(String modelPath, int nStates, int threadsPerState) {
+        this(WhisperBridge.initPool(modelPath, checkStates(nStates)), modelPath, nStates, threadsPerState);
+    }
+
+    /** Loads the model straight from an (uncompressed) APK asset, without copying it to storage first. */
+    public WhisperStatePool(AssetManager assets, String assetName, int nStates, int threadsPerState) {
+        this(WhisperBridge.initPoolFromAsset(assets, assetName, checkStates(nStates)), assetName, nStates, threadsPerState);
+    }
+
+    // Takes ownership of an initPool handle; package-private so tests can run the lease logic without native code
+    WhisperStatePool(long pool, String modelName, int nStates, int threadsPerState) {
+        if (pool == 0) {
+            throw new IllegalStateException("Whisper pool init failed for " + modelName);
+        }
+        this.pool = pool;
+        size = nStates;
+        this.threadsPerState = threadsPerState > 0
+                ? threadsPerState
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / nStates);
+        freeStates = new ArrayBlockingQueue<>(nStates);
+        for (int i = 0; i < nStates; i++) {
+            freeStates.add(i);
+        }
+    }
+
+    private static int checkStates(int nStates) {
+        if (nStates < 1) {
+            throw new IllegalArgumentException("nStates must be >= 1");
+        }
+        return nStates;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Records the timings of every following run into histograms under the given model name (null stops recording). */
+    public void recordLatency(LatencyHistograms histograms, String modelName) {
+        latencyModel = modelName;
+        latency = histograms;
+    }
+
+    /** Transcribes 16 kHz mono float PCM between position and limit; same buffer rules as {@link WhisperBridge#transcribe(long, FloatBuffer)}. */
+    public String transcribe(FloatBuffer pcm) throws InterruptedException {
+        return transcribe(pcm, null);
+    }
+
+    /** As {@link #transcribe(FloatBuffer)}, streaming segments to the listener as they are decoded. */
+    public String transcribe(FloatBuffer pcm, SegmentListener listener) throws InterruptedException {
+        return transcribe(pcm, null, listener, 0);
+    }
+
+    /** As {@link #transcribe(FloatBuffer, SegmentListener)} with explicit decoding options (null = defaults). */
+    public String transcribe(FloatBuffer pcm, WhisperParams params, SegmentListener listener) throws InterruptedException {
+        return transcribe(pcm, params, listener, 0);
+    }
+
+    /** Transcribes pcm[offset, offset + length) of 16 kHz mono float PCM. */
+    public String transcribe(float[] pcm, int offset, int length) throws InterruptedException {
+        return transcribe(pcm, offset, length, null, null, 0);
+    }
+
+    /** As {@link #transcribe(float[], int, int)}, streaming segments to the listener as they are decoded. */
+    public String transcribe(float[] pcm, int offset, int length, SegmentListener listener) throws InterruptedException {
+        return transcribe(pcm, offset, length, null, listener, 0);
+    }
+
+    /** As {@link #transcribe(float[], int, int, SegmentListener)} with explicit decoding options (null = defaults). */
+    public String transcribe(float[] pcm, int offset, int length, WhisperParams params, SegmentListener listener)
+            throws InterruptedException {
+        return transcribe(pcm, offset, length, params, listener, 0);
+    }
+
+    /**
+     * Like {@link #transcribe(float[], int, int, WhisperParams, SegmentListener)} but returns every segment
+     * and token, exported in a single native call while the state is still leased.
+     */
+    public TranscriptionResult transcribeDetailed(float[] pcm, int offset, int length, WhisperParams params)
+            throws InterruptedException {
+        long paramsHandle = WhisperParams.handleOf(params);
+        int state = lease();
+        try {
+            WhisperTimings timings = newTimings();
+            String status = WhisperBridge.transcribePool(pool, state, threadsPerState, pcm, offset, length, paramsHandle, null,
+                    0, WhisperTimings.arrayOf(timings));
+            if (status.startsWith("ERROR:")) {
+                throw new IllegalStateException(status);
+            }
+            recordTimings(timings);
+            return WhisperBridge.exportPoolResult(pool, state);
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Runs the transcription on the executor; cancelling the returned task stops it within one decoder step
+     * (or while it is still waiting for a free state, when cancelled with mayInterruptIfRunning).
+     */
+    public TranscriptionTask submit(Executor executor, FloatBuffer pcm, WhisperParams params, SegmentListener listener) {
+        TranscriptionTask task = new TranscriptionTask(abortFlag -> transcribe(pcm, params, listener, abortFlag));
+        executor.execute(task);
+        return task;
+    }
+
+    private String transcribe(FloatBuffer pcm, WhisperParams params, SegmentListener listener, long abortFlag)
+            throws InterruptedException {
+        if (!pcm.isDirect() && pcm.hasArray()) {
+            return transcribe(pcm.array(), pcm.arrayOffset() + pcm.position(), pcm.remaining(), params, listener, abortFlag);
+        }
+        if (!pcm.isDirect()) {
+            throw new IllegalArgumentException("PCM buffer must be direct or array-backed");
+        }
+        WhisperBridge.checkDirect(pcm);
+        long paramsHandle = WhisperParams.handleOf(params);
+        int state = lease();
+        try {
+            WhisperTimings timings = newTimings();
+            String text = WhisperBridge.transcribePoolBuffer(pool, state, threadsPerState, pcm, pcm.position(), pcm.remaining(),
+                    paramsHandle, listener, abortFlag, WhisperTimings.arrayOf(timings));
+            recordTimings(timings);
+            return text;
+        } finally {
+            release(state);
+        }
+    }
+
+    private String transcribe(float[] pcm, int offset, int length, WhisperParams params, SegmentListener listener,
+                              long abortFlag) throws InterruptedException {
+        long paramsHandle = WhisperParams.handleOf(params);
+        int state = lease();
+        try {
+            WhisperTimings timings = newTimings();
+            String text = WhisperBridge.transcribePool(pool, state, threadsPerState, pcm, offset, length, paramsHandle, listener,
+                    abortFlag, WhisperTimings.arrayOf(timings));
+            recordTimings(timings);
+            return text;
+        } finally {
+            release(state);
+        }
+    }
+
+    private WhisperTimings newTimings() {
+        return latency == null ? null : new WhisperTimings();
+    }
+
+    private void recordTimings(WhisperTimings timings) {
+        LatencyHistograms histograms = latency;
+        if (timings != null && histograms != null) {
+            histograms.record(latencyModel, timings);
+        }
+    }
+
+    /** Takes a free state index, blocking while all are busy; hand it back with {@link #release(int)}. */
+    int lease() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Pool is closed");
+        }
+        int state = freeStates.take();
+        if (state == CLOSED_MARKER || closed) {
+            freeStates.add(state); // let close() or the next waiter have it
+            throw new IllegalStateException("Pool is closed");
+        }
+        return state;
+    }
+
+    void release(int state) {
+        freeStates.add(state);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    // Overridden by tests
+    void freeNative(long pool) {
+        WhisperBridge.freePool(pool);
+    }
+
+    /**
+     * Waits for in-flight transcriptions to hand their states back, then frees the states and the model.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        boolean interrupted = false;
+        for (int drained = 0; drained < size; ) {
+            try {
+                if (freeStates.take() != CLOSED_MARKER) {
+                    drained++;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        freeNative(pool);
+        freeStates.add(CLOSED_MARKER);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
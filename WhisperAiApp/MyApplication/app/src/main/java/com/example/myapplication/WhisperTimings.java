@@ -0,0 +1,73 @@
+package com.example.myapplication;
+
+/**
+ * Timings of one transcription run, filled by native code from whisper_get_timings plus a wall clock.
+ *
+ * Stage values are whisper's per-call averages in milliseconds (e.g. one encoder pass per 30 s window).
+ * They are only available for runs on a context's default state; pool and streaming runs report -1 there
+ * and still fill wall time and real-time factor. Instances are reusable: pass the same one to every run.
+ */
+public final class WhisperTimings {
+
+    static final int LENGTH = 8;
+
+    private static final int SAMPLE = 0;
+    private static final int ENCODE = 1;
+    private static final int DECODE = 2;
+    private static final int BATCHD = 3;
+    private static final int PROMPT = 4;
+    private static final int WALL = 5;
+    private static final int AUDIO = 6;
+    private static final int RTF = 7;
+
+    // Written in place by JNI (SetFloatArrayRegion), layout shared with write_timings in native-lib.cpp
+    final float[] values = new float[LENGTH];
+
+    static float[] arrayOf(WhisperTimings timings) {
+        return timings == null ? null : timings.values;
+    }
+
+    public boolean hasStageTimings() {
+        return values[ENCODE] >= 0;
+    }
+
+    public float sampleMs() {
+        return values[SAMPLE];
+    }
+
+    public float encodeMs() {
+        return values[ENCODE];
+    }
+
+    public float decodeMs() {
+        return values[DECODE];
+    }
+
+    public float batchDecodeMs() {
+        return values[BATCHD];
+    }
+
+    public float promptMs() {
+        return values[PROMPT];
+    }
+
+    public float wallMs() {
+        return values[WALL];
+    }
+
+    public float audioMs() {
+        return values[AUDIO];
+    }
+
+    /** Wall time / audio duration; below 1 means faster than real time. */
+    public float realTimeFactor() {
+        return values[RTF];
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.US,
+                "wall=%.0fms audio=%.0fms rtf=%.3f encode=%.1fms decode=%.1fms batchd=%.1fms prompt=%.1fms sample=%.2fms",
+                wallMs(), audioMs(), realTimeFactor(), encodeMs(), decodeMs(), batchDecodeMs(), promptMs(), sampleMs());
+    }
+}
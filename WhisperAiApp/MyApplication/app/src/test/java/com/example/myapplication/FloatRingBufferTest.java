@@ -0,0 +1,58 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FloatRingBufferTest {
+
+    @Test
+    public void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(8, new FloatRingBuffer(5).capacity());
+        assertEquals(8, new FloatRingBuffer(8).capacity());
+        assertEquals(4, new FloatRingBuffer(3).capacity());
+    }
+
+    @Test
+    public void readsInOrderAcrossTheWrap() {
+        FloatRingBuffer ring = new FloatRingBuffer(8);
+        float[] out = new float[8];
+
+        // Advance the positions so the next write straddles the end of the array
+        assertEquals(6, ring.write(pcm(0, 6), 6));
+        assertEquals(6, ring.read(out, 0, 6));
+
+        assertEquals(5, ring.write(pcm(100, 5), 5));
+        assertEquals(5, ring.available());
+        assertEquals(5, ring.read(out, 1, 8));
+        for (int i = 0; i < 5; i++) {
+            assertEquals((100 + i) / 32768.0f, out[1 + i], 0f);
+        }
+        assertEquals(0, ring.available());
+    }
+
+    @Test
+    public void dropsWhatDoesNotFitAndSkipsOnDemand() {
+        FloatRingBuffer ring = new FloatRingBuffer(4);
+        assertEquals(4, ring.write(pcm(0, 6), 6));
+        assertEquals(2, ring.droppedCount());
+
+        ring.skip(3);
+        assertEquals(1, ring.available());
+        float[] out = new float[4];
+        assertEquals(1, ring.read(out, 0, 4));
+        assertEquals(3 / 32768.0f, out[0], 0f);
+
+        ring.skip(10); // never past the write position
+        assertEquals(0, ring.available());
+        assertEquals(4, ring.write(pcm(0, 4), 4));
+    }
+
+    private static short[] pcm(int first, int n) {
+        short[] samples = new short[n];
+        for (int i = 0; i < n; i++) {
+            samples[i] = (short) (first + i);
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramsTest {
+
+    @Test
+    public void quantilesAreWithinOneBucketOfTheRecordedValues() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        for (int ms = 1; ms <= 100; ms++) {
+            histograms.record("tiny", timings(ms, -1));
+        }
+
+        LatencyHistograms.Histogram wall = histograms.get("tiny", "wall");
+        assertEquals(100, wall.count());
+        // Buckets are 1/8 of an octave wide and report their upper bound
+        assertBucket(50f, wall.quantile(0.5));
+        assertBucket(90f, wall.quantile(0.9));
+        assertBucket(100f, wall.quantile(1.0));
+        assertBucket(1f, wall.quantile(0.0));
+    }
+
+    @Test
+    public void smallValuesGetExactBuckets() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        histograms.record("tiny", timings(0.003f, -1)); // 3 us
+        assertEquals(0.004f, histograms.get("tiny", "wall").quantile(0.5), 1e-6f);
+    }
+
+    @Test
+    public void stageTimingsAreOnlyRecordedWhenAvailable() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        histograms.record("pool", timings(200, -1));
+        histograms.record("ctx", timings(200, 40));
+
+        assertEquals(0, histograms.get("pool", "encode").count());
+        assertEquals(1, histograms.get("pool", "rtf").count());
+        assertEquals(1, histograms.get("ctx", "encode").count());
+        assertBucket(40f, histograms.get("ctx", "encode").quantile(0.5));
+        assertBucket(100f, histograms.get("ctx", "rtf").quantile(0.5)); // RTF 0.1, stored as milli-RTF
+        assertNull(histograms.get("missing", "wall"));
+        assertNull(histograms.get("ctx", "unknown"));
+        assertTrue(histograms.summary().contains("ctx: runs=1"));
+    }
+
+    @Test
+    public void emptyAndUnavailableValuesAreIgnored() {
+        LatencyHistograms histograms = new LatencyHistograms();
+        histograms.record("m", timings(Float.NaN, -1));
+        LatencyHistograms.Histogram wall = histograms.get("m", "wall");
+        assertEquals(0, wall.count());
+        assertTrue(Float.isNaN(wall.quantile(0.5)));
+    }
+
+    // wallMs of a 2 s clip; encodeMs < 0 means no stage timings (pool / streaming runs)
+    private static WhisperTimings timings(float wallMs, float encodeMs) {
+        WhisperTimings timings = new WhisperTimings();
+        timings.values[1] = encodeMs;
+        timings.values[2] = encodeMs;
+        timings.values[3] = encodeMs;
+        timings.values[4] = encodeMs;
+        timings.values[5] = wallMs;
+        timings.values[6] = 2000f;
+        timings.values[7] = wallMs / 2000f;
+        return timings;
+    }
+
+    private static void assertBucket(float expected, float actual) {
+        assertTrue(actual + " should be in [" + expected + ", " + expected * 1.125f + "]",
+                actual >= expected && actual <= expected * 1.125f + 1e-6f);
+    }
+}
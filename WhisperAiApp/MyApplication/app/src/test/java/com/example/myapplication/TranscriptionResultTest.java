@@ -0,0 +1,48 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class TranscriptionResultTest {
+
+    @Test
+    public void segmentsAndTokensIndexTheFlatArrays() {
+        byte[] text = " And so, my fellow Am\u00e9ricains".getBytes(StandardCharsets.UTF_8);
+        int split = " And so,".getBytes(StandardCharsets.UTF_8).length;
+        TranscriptionResult result = new TranscriptionResult(
+                new long[]{0, 1500}, new long[]{1500, 3200},
+                new int[]{0, split, text.length}, text,
+                new int[]{0, 3, 7}, new int[]{10, 11, 12, 20, 21, 22, 23},
+                new float[]{0.9f, 0.8f, 0.7f, 0.6f, 0.5f, 0.4f, 0.3f},
+                new long[]{0, 100, 200, 1500, 1600, 1700, 1800}, new long[]{100, 200, 300, 1600, 1700, 1800, 1900});
+
+        assertEquals(2, result.segmentCount());
+        assertEquals(" And so,", result.segmentText(0));
+        assertEquals(" my fellow Am\u00e9ricains", result.segmentText(1));
+        assertEquals(" And so, my fellow Am\u00e9ricains", result.text());
+        assertEquals(1500, result.segmentStartMs(1));
+        assertEquals(3200, result.segmentEndMs(1));
+
+        assertEquals(7, result.tokenCount());
+        assertEquals(3, result.tokenCount(0));
+        assertEquals(4, result.tokenCount(1));
+        int first = result.firstToken(1);
+        assertEquals(3, first);
+        assertEquals(20, result.tokenId(first));
+        assertEquals(0.6f, result.tokenProbability(first), 0f);
+        assertEquals(1500, result.tokenStartMs(first));
+        assertEquals(1900, result.tokenEndMs(result.tokenCount() - 1));
+    }
+
+    @Test
+    public void emptyResult() {
+        TranscriptionResult result = new TranscriptionResult(new long[0], new long[0], new int[]{0}, new byte[0],
+                new int[]{0}, new int[0], new float[0], new long[0], new long[0]);
+        assertEquals(0, result.segmentCount());
+        assertEquals(0, result.tokenCount());
+        assertEquals("", result.text());
+    }
+}
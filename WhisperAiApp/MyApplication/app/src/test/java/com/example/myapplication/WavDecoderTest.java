@@ -0,0 +1,76 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+public class WavDecoderTest {
+
+    @Test
+    public void skipsChunksBeforeDataAndDownmixesChannels() throws IOException {
+        byte[] list = "INFOtest!".getBytes(); // odd size: followed by a pad byte
+        ByteBuffer wav = header(1, 2, 16000, 16, 8 + list.length + 1 + 8 + 8, list);
+        wav.putInt(0x61746164).putInt(8);
+        wav.putShort((short) 16384).putShort((short) 0);      // frame 0: 0.5, 0
+        wav.putShort((short) -32768).putShort((short) -32768); // frame 1: -1, -1
+
+        FloatBuffer pcm = WavDecoder.decode(new ByteArrayInputStream(wav.array()));
+
+        assertTrue(pcm.isDirect());
+        assertEquals(2, pcm.remaining());
+        assertEquals(0.25f, pcm.get(0), 1e-6f);
+        assertEquals(-1.0f, pcm.get(1), 1e-6f);
+    }
+
+    @Test
+    public void resamplesOtherRatesTo16k() throws IOException {
+        int frames = 8000; // 1 s at 8 kHz
+        ByteBuffer wav = header(3, 1, 8000, 32, 8 + frames * 4, null);
+        wav.putInt(0x61746164).putInt(frames * 4);
+        for (int i = 0; i < frames; i++) {
+            wav.putFloat(i / (float) frames);
+        }
+
+        FloatBuffer pcm = WavDecoder.decode(new ByteArrayInputStream(wav.array()));
+
+        assertEquals(16000, pcm.remaining());
+        assertEquals(pcm.get(2) + (pcm.get(4) - pcm.get(2)) / 2, pcm.get(3), 1e-6f);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsChunkSizesPastTheEndInsteadOfLooping() throws IOException {
+        ByteBuffer wav = header(1, 1, 16000, 16, 8, null);
+        wav.putInt(0x5453494c /* LIST */).putInt(0x80000000);
+        WavDecoder.decode(new ByteArrayInputStream(wav.array()));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnsupportedSampleFormats() throws IOException {
+        ByteBuffer wav = header(1, 1, 16000, 8, 9, null);
+        wav.putInt(0x61746164).putInt(1).put((byte) 0);
+        WavDecoder.decode(new ByteArrayInputStream(wav.array()));
+    }
+
+    // RIFF header and fmt chunk, optionally followed by a LIST chunk; `rest` bytes remain to be filled
+    private static ByteBuffer header(int format, int channels, int rate, int bits, int rest, byte[] list) {
+        ByteBuffer wav = ByteBuffer.allocate(12 + 24 + rest).order(ByteOrder.LITTLE_ENDIAN);
+        int blockAlign = channels * bits / 8;
+        wav.putInt(0x46464952).putInt(wav.capacity() - 8).putInt(0x45564157);
+        wav.putInt(0x20746d66).putInt(16)
+                .putShort((short) format).putShort((short) channels).putInt(rate).putInt(rate * blockAlign)
+                .putShort((short) blockAlign).putShort((short) bits);
+        if (list != null) {
+            wav.putInt(0x5453494c).putInt(list.length).put(list);
+            if ((list.length & 1) != 0) {
+                wav.put((byte) 0);
+            }
+        }
+        return wav;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class WhisperParamsTest {
+
+    // Unit tests run from the module directory
+    private static final File WHISPER_CPP = new File("src/main/cpp/whispercpp/src/whisper.cpp");
+
+    @Test
+    public void builderDefaultsMatchWhisperFullDefaultParams() throws IOException {
+        assumeTrue("whisper.cpp sources not found", WHISPER_CPP.isFile());
+        Map<String, String> defaults = nativeDefaults();
+
+        WhisperParams params = WhisperParams.DEFAULT;
+        assertEquals(WhisperParams.Strategy.GREEDY, params.strategy);
+        assertEquals(Boolean.parseBoolean(defaults.get("no_context")), params.noContext);
+        assertEquals(Boolean.parseBoolean(defaults.get("single_segment")), params.singleSegment);
+        assertEquals(Integer.parseInt(defaults.get("audio_ctx")), params.audioCtx);
+        assertEquals(Integer.parseInt(defaults.get("max_tokens")), params.maxTokens);
+        assertEquals(parseFloat(defaults.get("temperature")), params.temperature, 0f);
+        assertEquals(parseFloat(defaults.get("temperature_inc")), params.temperatureInc, 0f);
+        assertEquals(defaults.get("language"), "\"" + params.language + "\"");
+        // 0 = keep the library's value for these
+        assertEquals(0, params.nThreads);
+        assertEquals(0, params.bestOf);
+        assertEquals(0, params.beamSize);
+    }
+
+    @Test
+    public void toBuilderRoundTripsEveryField() {
+        WhisperParams params = new WhisperParams.Builder()
+                .strategy(WhisperParams.Strategy.BEAM_SEARCH)
+                .threads(3)
+                .beamSize(4)
+                .bestOf(2)
+                .audioCtx(768)
+                .maxTokens(32)
+                .noContext(false)
+                .singleSegment(true)
+                .temperature(0.1f, 0.0f)
+                .language("de")
+                .build();
+
+        assertEquals(params.toString(), params.toBuilder().build().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeCounts() {
+        new WhisperParams.Builder().audioCtx(-1).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyLanguage() {
+        new WhisperParams.Builder().language("");
+    }
+
+    // The initializer of whisper_full_default_params, e.g. "/*.no_context =*/ true," -> no_context=true
+    private static Map<String, String> nativeDefaults() throws IOException {
+        String source = new String(Files.readAllBytes(WHISPER_CPP.toPath()), StandardCharsets.UTF_8);
+        int start = source.indexOf("struct whisper_full_params whisper_full_default_params(");
+        assertTrue(start >= 0);
+        String body = source.substring(start, source.indexOf("\n}", start));
+
+        Map<String, String> values = new HashMap<>();
+        Matcher m = Pattern.compile("/\\*\\s*\\.(\\w+)\\s*=\\*/\\s*([^,\\n]+),").matcher(body);
+        while (m.find()) {
+            values.putIfAbsent(m.group(1), m.group(2).trim());
+        }
+        return values;
+    }
+
+    private static float parseFloat(String value) {
+        return Float.parseFloat(value.endsWith("f") ? value.substring(0, value.length() - 1) : value);
+    }
+}
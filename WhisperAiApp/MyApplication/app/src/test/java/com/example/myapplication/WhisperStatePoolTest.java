@@ -0,0 +1,114 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class WhisperStatePoolTest {
+
+    // Exercises the lease bookkeeping around a fake native handle
+    private static final class FakePool extends WhisperStatePool {
+        final AtomicInteger frees = new AtomicInteger();
+
+        FakePool(int nStates) {
+            super(42, "fake", nStates, 1);
+        }
+
+        @Override
+        void freeNative(long pool) {
+            assertEquals(42, pool);
+            frees.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void leasesEachStateOnceUntilReleased() throws Exception {
+        FakePool pool = new FakePool(2);
+        int a = pool.lease();
+        int b = pool.lease();
+        assertNotEquals(a, b);
+
+        Thread waiter = new Thread(() -> {
+            try {
+                pool.release(pool.lease());
+            } catch (InterruptedException ignored) {
+            }
+        });
+        waiter.start();
+        waiter.join(100);
+        assertTrue("lease must block while all states are busy", waiter.isAlive());
+
+        pool.release(a);
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        pool.release(b);
+        pool.close();
+    }
+
+    @Test
+    public void closeWaitsForLeasedStatesAndFreesOnce() throws Exception {
+        FakePool pool = new FakePool(2);
+        int state = pool.lease();
+
+        Thread closer = new Thread(pool::close);
+        closer.start();
+        closer.join(100);
+        assertTrue("close must wait for the leased state", closer.isAlive());
+        assertEquals(0, pool.frees.get());
+
+        pool.release(state);
+        closer.join(5000);
+        assertFalse(closer.isAlive());
+        assertEquals(1, pool.frees.get());
+
+        pool.close();
+        assertEquals(1, pool.frees.get());
+    }
+
+    @Test
+    public void leaseFailsAfterCloseAndWakesBlockedCallers() throws Exception {
+        FakePool pool = new FakePool(1);
+        int state = pool.lease();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                pool.lease();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        waiter.start();
+        awaitParked(waiter);
+
+        Thread closer = new Thread(pool::close);
+        closer.start();
+        // Released only once closed is set, so the waiter cannot take it as a real lease
+        while (!pool.isClosed()) {
+            Thread.sleep(1);
+        }
+        pool.release(state);
+        closer.join(5000);
+        waiter.join(5000);
+
+        assertFalse(closer.isAlive());
+        assertFalse(waiter.isAlive());
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertEquals(1, pool.frees.get());
+        try {
+            pool.lease();
+            fail("lease after close");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("thread ended before blocking", thread.isAlive());
+            Thread.sleep(1);
+        }
+    }
+}